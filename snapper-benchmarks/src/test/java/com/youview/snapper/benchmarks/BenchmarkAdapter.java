@@ -0,0 +1,67 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.snapper.benchmarks;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.youview.centresnaprecyclerview.SnapRecyclerAdapter;
+
+/**
+ * <p>{@link SnapRecyclerAdapter} of empty fixed-width children, so that the benchmarks measure the
+ * snapping code rather than inflation or binding.</p>
+ */
+class BenchmarkAdapter extends SnapRecyclerAdapter {
+    private final int mItemCount;
+
+    static class BenchmarkViewHolder extends RecyclerView.ViewHolder {
+        BenchmarkViewHolder(View itemView) {
+            super(itemView);
+        }
+    }
+
+    BenchmarkAdapter(int itemCount, int currentPosition) {
+        mItemCount = itemCount;
+        mCurrentPosition = currentPosition;
+    }
+
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        View view = new View(parent.getContext());
+        view.setLayoutParams(new RecyclerView.LayoutParams(BenchmarkRecyclerView.CHILD_WIDTH,
+                ViewGroup.LayoutParams.MATCH_PARENT));
+        return new BenchmarkViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+        // Nothing to bind.
+    }
+
+    @Override
+    public int getItemCount() {
+        return mItemCount;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.snapper.benchmarks;
+
+import android.content.Context;
+
+import com.youview.centresnaprecyclerview.CentreSnapRecyclerView;
+
+/**
+ * <p>Fixed-width {@link CentreSnapRecyclerView} for the benchmarks. Preinflation is disabled, as
+ * the benchmarks are set up on a thread with no {@link android.os.Looper}, and children created
+ * ahead of time would skew what they measure.</p>
+ */
+class BenchmarkRecyclerView extends CentreSnapRecyclerView {
+    static final int CHILD_WIDTH = 240;
+
+    BenchmarkRecyclerView(Context context) {
+        super(context);
+        setViewPreinflationEnabled(false);
+    }
+
+    @Override
+    protected int getChildWidth() {
+        return CHILD_WIDTH;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.snapper.benchmarks;
+
+import android.app.Activity;
+import android.os.SystemClock;
+import android.support.v7.widget.RecyclerView;
+import android.view.KeyEvent;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.youview.centresnaprecyclerview.CentreKeylineLayoutManager;
+
+import org.robolectric.Robolectric;
+import org.robolectric.shadows.ShadowLooper;
+
+/**
+ * <p>Replays scripted interactions with a {@link ReplayRecyclerView} under Robolectric, running
+ * each to completion one 16ms frame at a time, e.g.</p>
+ * <pre>
+ * replay.fling(4000).keys(KeyEvent.KEYCODE_DPAD_RIGHT, KeyEvent.KEYCODE_DPAD_RIGHT).rotate();
+ * </pre>
+ *
+ * <p>The view is attached to an activity, so that its animations are posted to the main looper,
+ * and is measured and laid out whenever it requests a layout, at a fixed size.</p>
+ */
+class InteractionReplay {
+    static final int FRAME_MILLIS = 16;
+    static final int KEY_REPEAT_MILLIS = 3 * FRAME_MILLIS;
+
+    // No interaction should take anywhere near this long to settle.
+    private static final int MAX_FRAMES = 600;
+
+    private final ReplayRecyclerView mRecyclerView;
+    private int mWidth;
+    private int mHeight;
+
+    InteractionReplay(ReplayRecyclerView recyclerView, int width, int height) {
+        mRecyclerView = recyclerView;
+        mWidth = width;
+        mHeight = height;
+
+        Activity activity = Robolectric.buildActivity(Activity.class).create().start().resume()
+                .visible().get();
+        activity.setContentView(recyclerView, new ViewGroup.LayoutParams(width, height));
+        layout();
+        settle();
+    }
+
+    /**
+     * <p>Flings at {@code velocity} pixels per second along the main axis of the list, and waits
+     * for it to settle.</p>
+     */
+    InteractionReplay fling(int velocity) {
+        if (mRecyclerView.getOrientation() == CentreKeylineLayoutManager.VERTICAL) {
+            mRecyclerView.fling(0, velocity);
+        } else {
+            mRecyclerView.fling(velocity, 0);
+        }
+        return settle();
+    }
+
+    /**
+     * <p>Presses and releases each key in turn, a frame apart, and waits for the list to
+     * settle.</p>
+     */
+    InteractionReplay keys(int... keyCodes) {
+        for (int keyCode : keyCodes) {
+            mRecyclerView.dispatchKeyEvent(new KeyEvent(KeyEvent.ACTION_DOWN, keyCode));
+            frame();
+            mRecyclerView.dispatchKeyEvent(new KeyEvent(KeyEvent.ACTION_UP, keyCode));
+            frame();
+        }
+        return settle();
+    }
+
+    /**
+     * <p>Holds a key down for {@code repeats} key repeats, {@value #KEY_REPEAT_MILLIS}ms apart,
+     * then releases it and waits for the list to settle.</p>
+     */
+    InteractionReplay holdKey(int keyCode, int repeats) {
+        long downTime = SystemClock.uptimeMillis();
+        for (int i = 0; i < repeats; i++) {
+            mRecyclerView.dispatchKeyEvent(new KeyEvent(downTime,
+                    downTime + i * KEY_REPEAT_MILLIS, KeyEvent.ACTION_DOWN, keyCode, i));
+            for (int frame = 0; frame < KEY_REPEAT_MILLIS / FRAME_MILLIS; frame++) {
+                frame();
+            }
+        }
+        mRecyclerView.dispatchKeyEvent(new KeyEvent(downTime,
+                downTime + repeats * KEY_REPEAT_MILLIS, KeyEvent.ACTION_UP, keyCode, 0));
+        return settle();
+    }
+
+    /**
+     * <p>Swaps the width and height of the view, as rotating the screen would, and waits for the
+     * list to settle.</p>
+     */
+    InteractionReplay rotate() {
+        int width = mWidth;
+        mWidth = mHeight;
+        mHeight = width;
+        mRecyclerView.setLayoutParams(new ViewGroup.LayoutParams(mWidth, mHeight));
+        layout();
+        return settle();
+    }
+
+    /**
+     * <p>Runs {@code update}, such as a change to the adapter, and waits for the list to
+     * settle.</p>
+     */
+    InteractionReplay update(Runnable update) {
+        update.run();
+        return settle();
+    }
+
+    /**
+     * <p>Runs frames until the list is idle, with nothing more to do.</p>
+     *
+     * @throws AssertionError If the list has not settled after {@value #MAX_FRAMES} frames.
+     */
+    InteractionReplay settle() {
+        for (int i = 0; i < MAX_FRAMES; i++) {
+            frame();
+            if (mRecyclerView.getScrollState() == RecyclerView.SCROLL_STATE_IDLE
+                    && !mRecyclerView.getNavigationController().isNavigating()
+                    && !mRecyclerView.isLayoutRequested()) {
+                return this;
+            }
+        }
+        throw new AssertionError("Not settled after " + MAX_FRAMES + " frames");
+    }
+
+    private void frame() {
+        ShadowLooper.idleMainLooper(FRAME_MILLIS);
+        if (mRecyclerView.isLayoutRequested()) {
+            layout();
+        }
+    }
+
+    private void layout() {
+        mRecyclerView.measure(View.MeasureSpec.makeMeasureSpec(mWidth, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(mHeight, View.MeasureSpec.EXACTLY));
+        mRecyclerView.layout(0, 0, mWidth, mHeight);
+    }
+}
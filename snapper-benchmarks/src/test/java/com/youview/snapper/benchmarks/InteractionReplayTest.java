@@ -0,0 +1,435 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.snapper.benchmarks;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.KeyEvent;
+import android.view.View;
+
+import com.youview.centresnaprecyclerview.CentreFocusTransformer;
+import com.youview.centresnaprecyclerview.CentreKeylineLayoutManager;
+import com.youview.centresnaprecyclerview.RailStateCache;
+import com.youview.centresnaprecyclerview.SnapGeometry;
+import com.youview.centresnaprecyclerview.SnapMetrics;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * <p>Replays interactions with a {@link com.youview.centresnaprecyclerview.CentreSnapRecyclerView}
+ * and checks that each stays within a budget of binds, layouts, corrective snaps, measurement
+ * updates and allocations.</p>
+ *
+ * <p>The budgets are those met by the library today. A change that needs more work than this
+ * fails here, and a change that needs less should lower them.</p>
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class InteractionReplayTest {
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+    private static final int ITEM_COUNT = 1000;
+    private static final int START_POSITION = 500;
+
+    // Children wholly or partly on screen at once.
+    private static final int VISIBLE_CHILDREN = WIDTH / ReplayRecyclerView.CHILD_WIDTH + 2;
+
+    private static final int MAX_CORRECTIVE_PASSES_PER_SNAP = 1;
+    // Where the fling ends, and where the corrective scroll ends.
+    private static final int MAX_SETTLE_ITERATIONS_PER_SNAP = 2;
+    private static final int MAX_LAYOUTS_PER_SNAP = 1;
+    private static final int MAX_MEASUREMENT_UPDATES_PER_ROTATION = 1;
+    private static final int MAX_BINDS_FOR_OFF_SCREEN_INSERT = 0;
+    private static final long MAX_BYTES_PER_SCROLL_COMPLETED = 0;
+
+    private ReplayRecyclerView mRecyclerView;
+    private ReplayAdapter mAdapter;
+    private CountingSink mSink;
+    private InteractionReplay mReplay;
+
+    @Before
+    public void setUp() {
+        setUp(CentreKeylineLayoutManager.HORIZONTAL, false);
+    }
+
+    private void setUp(int orientation, boolean reverseLayout) {
+        mRecyclerView = new ReplayRecyclerView(RuntimeEnvironment.application);
+        mRecyclerView.setOrientation(orientation);
+        mRecyclerView.setReverseLayout(reverseLayout);
+        mAdapter = createAdapter(START_POSITION);
+        mRecyclerView.setAdapter(mAdapter);
+        mSink = new CountingSink();
+        mRecyclerView.setSnapMetrics(new SnapMetrics(mSink));
+        mReplay = new InteractionReplay(mRecyclerView, WIDTH, HEIGHT);
+        resetCounts();
+    }
+
+    private void resetCounts() {
+        mAdapter.mBindCount = 0;
+        mAdapter.mSelectionCount = 0;
+        mRecyclerView.mMeasurementsUpdatedCount = 0;
+        mSink.reset();
+    }
+
+    @Test
+    public void flingBindsOnlyTheChildrenItPasses() {
+        mReplay.fling(6000);
+
+        int travelled = Math.abs(mAdapter.getCurrentPosition() - START_POSITION);
+        assertTrue("Fling did not move", travelled > 0);
+        assertTrue("Bound " + mAdapter.mBindCount + " children to travel " + travelled,
+                mAdapter.mBindCount <= travelled + VISIBLE_CHILDREN);
+        assertCentred(mAdapter.getCurrentPosition());
+    }
+
+    @Test
+    public void flingsSettleWithinSnapBudget() {
+        mReplay.fling(3000).fling(-5000).fling(800);
+        mRecyclerView.setPredictiveFlingEnabled(true);
+        mReplay.fling(3000).fling(-5000).fling(800);
+
+        assertEquals(6, mSink.mSnapCount);
+        assertTrue("Corrective passes: " + mSink.mMaxCorrectivePasses,
+                mSink.mMaxCorrectivePasses <= MAX_CORRECTIVE_PASSES_PER_SNAP);
+        assertTrue("Settle iterations: " + mSink.mMaxSettleIterations,
+                mSink.mMaxSettleIterations <= MAX_SETTLE_ITERATIONS_PER_SNAP);
+        assertTrue("Layouts: " + mSink.mMaxLayouts, mSink.mMaxLayouts <= MAX_LAYOUTS_PER_SNAP);
+    }
+
+    @Test
+    public void keySequenceSelectsOnceAndSettlesCentred() {
+        mReplay.keys(KeyEvent.KEYCODE_DPAD_RIGHT, KeyEvent.KEYCODE_DPAD_RIGHT,
+                KeyEvent.KEYCODE_DPAD_RIGHT, KeyEvent.KEYCODE_DPAD_RIGHT,
+                KeyEvent.KEYCODE_DPAD_LEFT);
+
+        assertEquals(START_POSITION + 3, mAdapter.getCurrentPosition());
+        assertEquals(1, mAdapter.mSelectionCount);
+        assertTrue(mSink.mMaxCorrectivePasses <= MAX_CORRECTIVE_PASSES_PER_SNAP);
+        assertCentred(START_POSITION + 3);
+    }
+
+    @Test
+    public void keysPastTheEndAreNotConsumed() {
+        mRecyclerView.scrollToPosition(0);
+        mReplay.settle();
+        resetCounts();
+
+        assertFalse(mRecyclerView.dispatchKeyEvent(
+                new KeyEvent(KeyEvent.ACTION_DOWN, KeyEvent.KEYCODE_DPAD_LEFT)));
+        assertFalse(mRecyclerView.dispatchKeyEvent(
+                new KeyEvent(KeyEvent.ACTION_UP, KeyEvent.KEYCODE_DPAD_LEFT)));
+        mReplay.settle();
+        assertEquals(0, mAdapter.getCurrentPosition());
+        assertCentred(0);
+
+        assertTrue(mRecyclerView.dispatchKeyEvent(
+                new KeyEvent(KeyEvent.ACTION_DOWN, KeyEvent.KEYCODE_DPAD_RIGHT)));
+        assertTrue(mRecyclerView.dispatchKeyEvent(
+                new KeyEvent(KeyEvent.ACTION_UP, KeyEvent.KEYCODE_DPAD_RIGHT)));
+        mReplay.settle();
+        assertEquals(1, mAdapter.getCurrentPosition());
+    }
+
+    @Test
+    public void heldKeyKeepsGoingTheWayPressedRoundAShortLoop() {
+        mAdapter.setItems(ReplayAdapter.createIds(0, 5));
+        mRecyclerView.setCircular(true);
+        mReplay.settle();
+        final int[] backwardScrolls = new int[1];
+        mRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                if (dx < 0) {
+                    backwardScrolls[0]++;
+                }
+            }
+        });
+
+        // Long enough for each repeat to move a whole loop.
+        mReplay.holdKey(KeyEvent.KEYCODE_DPAD_RIGHT, 50);
+
+        assertEquals(0, backwardScrolls[0]);
+        assertCentred(mAdapter.getCurrentPosition());
+    }
+
+    @Test
+    public void loopShorterThanTheScreenAttachesEachItemOnce() {
+        mAdapter.setItems(ReplayAdapter.createIds(0, 5));
+        mRecyclerView.setCircular(true);
+        mReplay.settle();
+        assertEachItemAttachedOnce(mRecyclerView, 5);
+
+        mReplay.fling(3000);
+        assertEachItemAttachedOnce(mRecyclerView, 5);
+    }
+
+    @Test
+    public void zeroWidthChildrenDoNotFillForever() {
+        ReplayRecyclerView recyclerView = new ReplayRecyclerView(RuntimeEnvironment.application);
+        recyclerView.setCircular(true);
+        ReplayAdapter adapter = new ReplayAdapter();
+        adapter.mChildWidth = 0;
+        adapter.setItems(ReplayAdapter.createIds(0, 5));
+        recyclerView.setAdapter(adapter);
+        new InteractionReplay(recyclerView, WIDTH, HEIGHT);
+
+        assertEachItemAttachedOnce(recyclerView, 5);
+    }
+
+    @Test
+    public void rotationUpdatesMeasurementsOnceAndKeepsCentre() {
+        mReplay.rotate();
+        assertTrue(mRecyclerView.mMeasurementsUpdatedCount
+                <= MAX_MEASUREMENT_UPDATES_PER_ROTATION);
+        assertCentred(START_POSITION);
+
+        mReplay.rotate();
+        assertTrue(mRecyclerView.mMeasurementsUpdatedCount
+                <= 2 * MAX_MEASUREMENT_UPDATES_PER_ROTATION);
+        assertCentred(START_POSITION);
+        assertEquals(0, mAdapter.mSelectionCount);
+    }
+
+    @Test
+    public void offScreenInsertKeepsCentreWithoutRebinding() {
+        mReplay.update(new Runnable() {
+            @Override
+            public void run() {
+                mAdapter.submitItems(ReplayAdapter.createIds(-10, ITEM_COUNT + 10));
+            }
+        });
+
+        assertEquals(START_POSITION, mAdapter.getCurrentItemId());
+        assertEquals(START_POSITION + 10, mAdapter.getCurrentPosition());
+        assertTrue("Binds: " + mAdapter.mBindCount,
+                mAdapter.mBindCount <= MAX_BINDS_FOR_OFF_SCREEN_INSERT);
+        assertCentred(START_POSITION + 10);
+    }
+
+    @Test
+    public void reversedVerticalRailMeetsTheSameBudgets() {
+        setUp(CentreKeylineLayoutManager.VERTICAL, true);
+        assertCentred(START_POSITION);
+
+        mReplay.fling(3000).fling(-5000);
+        assertEquals(2, mSink.mSnapCount);
+        assertTrue(mSink.mMaxCorrectivePasses <= MAX_CORRECTIVE_PASSES_PER_SNAP);
+        assertTrue(mSink.mMaxSettleIterations <= MAX_SETTLE_ITERATIONS_PER_SNAP);
+        assertTrue(mSink.mMaxLayouts <= MAX_LAYOUTS_PER_SNAP);
+        assertCentred(mAdapter.getCurrentPosition());
+
+        // In reverse, the list runs up the screen, so up moves towards the end.
+        int position = mAdapter.getCurrentPosition();
+        resetCounts();
+        mReplay.keys(KeyEvent.KEYCODE_DPAD_UP, KeyEvent.KEYCODE_DPAD_UP,
+                KeyEvent.KEYCODE_DPAD_UP, KeyEvent.KEYCODE_DPAD_UP,
+                KeyEvent.KEYCODE_DPAD_DOWN);
+        assertEquals(position + 3, mAdapter.getCurrentPosition());
+        assertEquals(1, mAdapter.mSelectionCount);
+        assertCentred(position + 3);
+    }
+
+    @Test
+    public void backgroundPreinflationFillsThePool() {
+        ReplayRecyclerView recyclerView = new ReplayRecyclerView(RuntimeEnvironment.application);
+        recyclerView.setViewPreinflationExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        });
+        ReplayAdapter adapter = new ReplayAdapter();
+        adapter.mCreateInBackground = true;
+        adapter.setItems(ReplayAdapter.createIds(0, ITEM_COUNT));
+        adapter.setCurrentPosition(START_POSITION);
+        // Set before the view is attached, as adapters usually are.
+        recyclerView.setAdapter(adapter);
+        ShadowLooper.runUiThreadTasks();
+
+        int screenWidth = RuntimeEnvironment.application.getResources().getDisplayMetrics()
+                .widthPixels;
+        RecyclerView.RecycledViewPool pool = recyclerView.getRecycledViewPool();
+        int pooled = 0;
+        while (pool.getRecycledView(0) != null) {
+            pooled++;
+        }
+        assertEquals(screenWidth / ReplayRecyclerView.CHILD_WIDTH + 2, pooled);
+    }
+
+    @Test
+    public void railStateSurvivesNewAdapterBeforeRebind() {
+        RailStateCache cache = new RailStateCache();
+        mRecyclerView.setRailState(cache, 1);
+        mReplay.settle();
+
+        // Rebound as another rail, with the new adapter set first.
+        mRecyclerView.setAdapter(createAdapter(20));
+        mRecyclerView.setRailState(cache, 2);
+        mReplay.settle();
+        assertCentred(20);
+
+        ReplayAdapter adapter = createAdapter(0);
+        mRecyclerView.setAdapter(adapter);
+        mRecyclerView.setRailState(cache, 1);
+        mReplay.settle();
+        assertEquals(START_POSITION, adapter.getCurrentPosition());
+        assertCentred(START_POSITION);
+    }
+
+    @Test
+    public void clearingTheCentreTransformerRestoresChildren() {
+        mRecyclerView.setCentreTransformer(new CentreFocusTransformer(2, 0.5f, 0.5f, 8));
+        assertTrue(hasTransformedChild());
+
+        mRecyclerView.setCentreTransformer(null);
+        assertFalse(hasTransformedChild());
+    }
+
+    @Test
+    public void recycledChildrenAreNotLeftTransformed() {
+        mRecyclerView.setCentreTransformer(new CentreFocusTransformer(2, 0.5f, 0.5f, 8));
+        mReplay.fling(6000);
+
+        RecyclerView.RecycledViewPool pool = mRecyclerView.getRecycledViewPool();
+        int recycled = 0;
+        RecyclerView.ViewHolder holder;
+        while ((holder = pool.getRecycledView(0)) != null) {
+            assertEquals(1f, holder.itemView.getScaleX(), 0f);
+            assertEquals(1f, holder.itemView.getAlpha(), 0f);
+            recycled++;
+        }
+        assertTrue("Nothing was recycled", recycled > 0);
+    }
+
+    private boolean hasTransformedChild() {
+        for (int i = 0; i < mRecyclerView.getChildCount(); i++) {
+            View child = mRecyclerView.getChildAt(i);
+            if (child.getScaleX() != 1f || child.getAlpha() != 1f) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ReplayAdapter createAdapter(int currentPosition) {
+        ReplayAdapter adapter = new ReplayAdapter();
+        adapter.setItems(ReplayAdapter.createIds(0, ITEM_COUNT));
+        adapter.setCurrentPosition(currentPosition);
+        return adapter;
+    }
+
+    @Test
+    public void scrollCompletedDoesNotAllocate() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        assumeTrue("Allocation counting needs the HotSpot ThreadMXBean",
+                threadBean instanceof com.sun.management.ThreadMXBean
+                        && ((com.sun.management.ThreadMXBean) threadBean)
+                                .isThreadAllocatedMemorySupported());
+        BenchmarkScrollListener listener = mRecyclerView.getReplayScrollListener();
+        for (int i = 0; i < 1000; i++) {
+            listener.snap(mRecyclerView);
+        }
+
+        // Reading the counter may itself allocate, so measure that first.
+        long calibration = getAllocatedBytes();
+        long overhead = getAllocatedBytes() - calibration;
+        long before = getAllocatedBytes();
+        for (int i = 0; i < 1000; i++) {
+            listener.snap(mRecyclerView);
+        }
+        long allocated = getAllocatedBytes() - before - overhead;
+        assertTrue("Allocated " + allocated + " bytes in 1000 calls",
+                allocated <= 1000 * MAX_BYTES_PER_SCROLL_COMPLETED);
+    }
+
+    private static void assertEachItemAttachedOnce(RecyclerView recyclerView, int itemCount) {
+        Set<Integer> positions = new HashSet<>();
+        for (int i = 0; i < recyclerView.getChildCount(); i++) {
+            int position = recyclerView.getChildAdapterPosition(recyclerView.getChildAt(i));
+            assertTrue("Attached twice: " + position, positions.add(position));
+        }
+        assertEquals(itemCount, positions.size());
+    }
+
+    private void assertCentred(int position) {
+        SnapGeometry geometry = mRecyclerView.getSnapGeometry();
+        assertEquals(geometry.getCentredOffset(position), mRecyclerView.getSnapScrollOffset(), 1);
+    }
+
+    /**
+     * @return The bytes allocated by this thread, on a JVM whose {@link ThreadMXBean} is a
+     *         {@code com.sun.management.ThreadMXBean}.
+     */
+    private static long getAllocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * <p>{@link SnapMetrics.Sink} keeping the worst case of each count over the snaps seen.</p>
+     */
+    private static class CountingSink implements SnapMetrics.Sink {
+        int mSnapCount;
+        int mMaxCorrectivePasses;
+        int mMaxSettleIterations;
+        int mMaxLayouts;
+
+        void reset() {
+            mSnapCount = 0;
+            mMaxCorrectivePasses = 0;
+            mMaxSettleIterations = 0;
+            mMaxLayouts = 0;
+        }
+
+        @Override
+        public void onSnapFrame(long frameDurationNanos) {
+            // Frame times under Robolectric say nothing about a device.
+        }
+
+        @Override
+        public void onSnapSettled(long durationMillis, int correctivePasses, int settleIterations,
+                                  int frameCount, int bindCount, int layoutCount) {
+            mSnapCount++;
+            mMaxCorrectivePasses = Math.max(mMaxCorrectivePasses, correctivePasses);
+            mMaxSettleIterations = Math.max(mMaxSettleIterations, settleIterations);
+            mMaxLayouts = Math.max(mMaxLayouts, layoutCount);
+        }
+    }
+}
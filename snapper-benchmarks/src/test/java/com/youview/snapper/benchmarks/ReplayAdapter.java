@@ -0,0 +1,113 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.snapper.benchmarks;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.youview.centresnaprecyclerview.CentreKeylineLayoutManager;
+import com.youview.centresnaprecyclerview.CentreSnapRecyclerView;
+import com.youview.centresnaprecyclerview.StableIdSnapAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>{@link StableIdSnapAdapter} of empty fixed-size children, identified by {@code Long} ids,
+ * that counts its binds and selections. Lists are compared on the calling thread, so that updates
+ * are applied as soon as the main looper runs.</p>
+ */
+class ReplayAdapter extends StableIdSnapAdapter<Long> {
+    int mBindCount;
+    int mSelectionCount;
+    boolean mCreateInBackground;
+    int mChildWidth = ReplayRecyclerView.CHILD_WIDTH;
+
+    static class ReplayViewHolder extends RecyclerView.ViewHolder {
+        ReplayViewHolder(View itemView) {
+            super(itemView);
+        }
+    }
+
+    ReplayAdapter() {
+        super(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        });
+    }
+
+    /**
+     * @return Ids {@code first} to {@code first + count - 1}.
+     */
+    static List<Long> createIds(long first, int count) {
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(first + i);
+        }
+        return ids;
+    }
+
+    void setCurrentPosition(int currentPosition) {
+        mCurrentPosition = currentPosition;
+    }
+
+    @Override
+    protected boolean canCreateViewHolderInBackground(int viewType) {
+        return mCreateInBackground;
+    }
+
+    @Override
+    protected long getStableId(Long item) {
+        return item;
+    }
+
+    @Override
+    public void onItemSelected(int position) {
+        super.onItemSelected(position);
+        mSelectionCount++;
+    }
+
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        View view = new View(parent.getContext());
+        if (((CentreSnapRecyclerView) parent).getOrientation()
+                == CentreKeylineLayoutManager.VERTICAL) {
+            view.setLayoutParams(new RecyclerView.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, mChildWidth));
+        } else {
+            view.setLayoutParams(new RecyclerView.LayoutParams(mChildWidth,
+                    ViewGroup.LayoutParams.MATCH_PARENT));
+        }
+        return new ReplayViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+        mBindCount++;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.snapper.benchmarks;
+
+import android.content.Context;
+
+import com.youview.centresnaprecyclerview.CentreSnapRecyclerView;
+import com.youview.centresnaprecyclerview.CentreSnapScrollListener;
+
+/**
+ * <p>Fixed-width {@link CentreSnapRecyclerView} that counts its measurement updates and exposes
+ * its scroll listener, for the interaction replays.</p>
+ */
+class ReplayRecyclerView extends CentreSnapRecyclerView {
+    static final int CHILD_WIDTH = 240;
+
+    // Assigned from the super constructor, so must not have an initialiser.
+    private BenchmarkScrollListener mReplayScrollListener;
+    int mMeasurementsUpdatedCount;
+
+    ReplayRecyclerView(Context context) {
+        super(context);
+    }
+
+    @Override
+    protected int getChildWidth() {
+        return CHILD_WIDTH;
+    }
+
+    @Override
+    protected CentreSnapScrollListener createScrollListener() {
+        mReplayScrollListener = new BenchmarkScrollListener();
+        return mReplayScrollListener;
+    }
+
+    @Override
+    protected void onMeasurementsUpdated(int newWidth) {
+        super.onMeasurementsUpdated(newWidth);
+        mMeasurementsUpdatedCount++;
+    }
+
+    BenchmarkScrollListener getReplayScrollListener() {
+        return mReplayScrollListener;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.snapper.benchmarks;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Benchmarks of the code that runs on every snap, across a range of adapter sizes. Run through
+ * {@link SnapBenchmarksRunner}, which also reports the bytes allocated per operation.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SnapBenchmarks {
+    private static final int WIDTH = 1920;
+    private static final int ALTERNATE_WIDTH = 1280;
+    private static final int HEIGHT = 240;
+
+    @Param({"16", "1024", "65536", "1048576"})
+    public int itemCount;
+
+    private BenchmarkRecyclerView mRecyclerView;
+    private BenchmarkScrollListener mScrollListener;
+    private RecyclerView.LayoutManager mLayoutManager;
+    private final RecyclerView.State mState = new RecyclerView.State();
+    private int mHeightSpec;
+    private int mWidthSpec;
+    private int mAlternateWidthSpec;
+    private int mCentrePosition;
+    private boolean mToggle;
+
+    @Setup
+    public void setUp() {
+        mCentrePosition = itemCount / 2;
+        mRecyclerView = new BenchmarkRecyclerView(RuntimeEnvironment.application);
+        mRecyclerView.setAdapter(new BenchmarkAdapter(itemCount, mCentrePosition));
+        mScrollListener = new BenchmarkScrollListener();
+        mLayoutManager = mRecyclerView.getLayoutManager();
+
+        mWidthSpec = View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY);
+        mAlternateWidthSpec = View.MeasureSpec.makeMeasureSpec(ALTERNATE_WIDTH,
+                View.MeasureSpec.EXACTLY);
+        mHeightSpec = View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY);
+
+        layout();
+
+        // Leave the centre child a third of a child off-centre, so every snap has work to do.
+        mRecyclerView.scrollBy(BenchmarkRecyclerView.CHILD_WIDTH / 3, 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mRecyclerView.stopScroll();
+    }
+
+    private void layout() {
+        mRecyclerView.measure(mWidthSpec, mHeightSpec);
+        mRecyclerView.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    /**
+     * <p>The snap run each time a scroll becomes idle. The resulting smooth scroll is stopped
+     * straight away, so every invocation starts from the same off-centre state.</p>
+     */
+    @Benchmark
+    public void onScrollCompleted() {
+        mScrollListener.snap(mRecyclerView);
+        mRecyclerView.stopScroll();
+    }
+
+    /**
+     * <p>A full layout pass, which lays out the attached children outwards from the centre.</p>
+     */
+    @Benchmark
+    public void layoutChildren() {
+        mRecyclerView.requestLayout();
+        layout();
+    }
+
+    /**
+     * <p>A centre-aligned scroll to a neighbouring, attached child.</p>
+     */
+    @Benchmark
+    public void smoothScrollToNeighbour() {
+        mToggle = !mToggle;
+        int position = mToggle ? mCentrePosition + 1 : mCentrePosition - 1;
+        mLayoutManager.smoothScrollToPosition(mRecyclerView, mState, position);
+        mRecyclerView.stopScroll();
+    }
+
+    /**
+     * <p>Starting a centre-aligned scroll to a child at the far end of the adapter.</p>
+     */
+    @Benchmark
+    public void smoothScrollToDistant() {
+        mToggle = !mToggle;
+        int position = mToggle ? itemCount - 1 : 0;
+        mLayoutManager.smoothScrollToPosition(mRecyclerView, mState, position);
+        mRecyclerView.stopScroll();
+    }
+
+    /**
+     * <p>Measurement with a changing width, so every pass recalculates the snap measurements.</p>
+     */
+    @Benchmark
+    public void onMeasure() {
+        mToggle = !mToggle;
+        mRecyclerView.measure(mToggle ? mAlternateWidthSpec : mWidthSpec, mHeightSpec);
+    }
+}
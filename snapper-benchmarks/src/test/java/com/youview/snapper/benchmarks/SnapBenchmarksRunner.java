@@ -0,0 +1,70 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.snapper.benchmarks;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * <p>Runs the JMH benchmarks inside Robolectric, so that the Android framework classes they use
+ * have real implementations on a plain JVM.</p>
+ *
+ * <p>Results are printed to the test output and written to
+ * {@code build/snapper-benchmarks.json}. The {@code gc.alloc.rate.norm} figures are the bytes
+ * allocated per operation.</p>
+ *
+ * <p>The benchmarks only run through the {@code benchmark} Gradle task, which sets the
+ * {@code snapper.benchmarks} system property; other test runs skip them.</p>
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class SnapBenchmarksRunner {
+    @Test
+    public void runBenchmarks() throws RunnerException {
+        assumeTrue(Boolean.getBoolean("snapper.benchmarks"));
+
+        Options options = new OptionsBuilder()
+                .include(SnapBenchmarks.class.getName())
+                // Forked JVMs would run outside Robolectric's sandbox.
+                .forks(0)
+                .threads(1)
+                .warmupIterations(5)
+                .measurementIterations(10)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("build/snapper-benchmarks.json")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -27,14 +27,14 @@ import android.os.Bundle;
 import android.support.v7.app.AppCompatActivity;
 import android.widget.TextView;
 
-import com.youview.centresnaprecyclerview.SnapRecyclerAdapter;
+import com.youview.centresnaprecyclerview.CentreFocusTransformer;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class MainActivity extends AppCompatActivity implements OnSelectionChangedListener<String> {
     private static final int NUMBER_OF_ITEMS = 16;
-    private static final String BUNDLE_CURRENT_POSITION = "position";
+    private static final float CENTRE_ELEVATION_DP = 8f;
 
     private SampleCenterSnapView mRecyclerView;
     private TextView mContent;
@@ -52,23 +52,16 @@ public class MainActivity extends AppCompatActivity implements OnSelectionChange
             data.add(new DataItem(Integer.toString(i), String.format(base, i)));
         }
 
+        // The view saves and restores the current position itself.
         int startPosition = 0;
-        if (savedInstanceState != null) {
-            startPosition = savedInstanceState.getInt(BUNDLE_CURRENT_POSITION, startPosition);
-        }
-
         mRecyclerView.setAdapter(new SampleSnapAdapter(data, startPosition));
         mRecyclerView.setOnSelectionChangedListener(this);
+        mRecyclerView.setPredictiveFlingEnabled(true);
+        float elevation = CENTRE_ELEVATION_DP * getResources().getDisplayMetrics().density;
+        mRecyclerView.setCentreTransformer(new CentreFocusTransformer(2f, 0.8f, 0.5f, elevation));
         onSelectionChanged(data.get(startPosition).getContent());
     }
 
-    @Override
-    protected void onSaveInstanceState(Bundle outState) {
-        super.onSaveInstanceState(outState);
-        SnapRecyclerAdapter adapter = (SnapRecyclerAdapter) mRecyclerView.getAdapter();
-        outState.putInt(BUNDLE_CURRENT_POSITION, adapter.getCurrentPosition());
-    }
-
     @Override
     public void onSelectionChanged(String newData) {
         mContent.setText(newData);
@@ -30,6 +30,7 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 
+import com.youview.centresnaprecyclerview.SelectionPipeline;
 import com.youview.centresnaprecyclerview.SnapRecyclerAdapter;
 
 import java.util.List;
@@ -50,12 +51,22 @@ public class SampleSnapAdapter extends SnapRecyclerAdapter {
     public SampleSnapAdapter(List<DataItem> items, int currentPosition) {
         mItems = items;
         mCurrentPosition = currentPosition;
-    }
+        setHasStableIds(true);
 
-    @Override
-    public void onItemSelected(int position) {
-        super.onItemSelected(position);
-        mRecycler.updateData(mItems.get(position));
+        // The items are already in memory, but a real app would fetch their details here.
+        setSelectionPipeline(new SelectionPipeline<>(new SelectionPipeline.Loader<DataItem>() {
+            @Override
+            public DataItem load(long itemId) {
+                return mItems.get((int) itemId);
+            }
+        }, new SelectionPipeline.Listener<DataItem>() {
+            @Override
+            public void onDetailsLoaded(int position, DataItem details) {
+                if (mRecycler != null) {
+                    mRecycler.updateData(details);
+                }
+            }
+        }));
     }
 
     @Override
@@ -70,6 +81,11 @@ public class SampleSnapAdapter extends SnapRecyclerAdapter {
         ((SampleViewHolder) holder).mTitle.setText(mItems.get(position).getTitle());
     }
 
+    @Override
+    public long getItemId(int position) {
+        return position;
+    }
+
     @Override
     public int getItemCount() {
         return mItems.size();
@@ -0,0 +1,72 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.centresnaprecyclerview;
+
+import android.support.v4.view.ViewCompat;
+import android.view.View;
+
+/**
+ * <p>{@link CentreTransformer} that gives the centre child its full size, opacity and elevation,
+ * and shrinks, fades and lowers the others in proportion to their distance from the centre, up
+ * to a maximum distance.</p>
+ */
+public class CentreFocusTransformer implements CentreTransformer {
+    private final float mMaxDistance;
+    private final float mMinScale;
+    private final float mMinAlpha;
+    private final float mMaxElevation;
+
+    /**
+     * @param maxDistance The distance, in children, at which the minimums are reached.
+     * @param minScale The scale of children at {@code maxDistance} or further.
+     * @param minAlpha The alpha of children at {@code maxDistance} or further.
+     * @param maxElevation The elevation of the centre child, in pixels. Only shown on API 21 and
+     *                     above.
+     */
+    public CentreFocusTransformer(float maxDistance, float minScale, float minAlpha,
+            float maxElevation) {
+        if (maxDistance <= 0) {
+            throw new IllegalArgumentException("maxDistance must be positive");
+        }
+        mMaxDistance = maxDistance;
+        mMinScale = minScale;
+        mMinAlpha = minAlpha;
+        mMaxElevation = maxElevation;
+    }
+
+    @Override
+    public float getMaxDistance() {
+        return mMaxDistance;
+    }
+
+    @Override
+    public void transformChild(View child, float distance) {
+        float fraction = Math.abs(distance) / mMaxDistance;
+        float scale = 1 - (1 - mMinScale) * fraction;
+        ViewCompat.setScaleX(child, scale);
+        ViewCompat.setScaleY(child, scale);
+        ViewCompat.setAlpha(child, 1 - (1 - mMinAlpha) * fraction);
+        ViewCompat.setElevation(child, mMaxElevation * (1 - fraction));
+    }
+}
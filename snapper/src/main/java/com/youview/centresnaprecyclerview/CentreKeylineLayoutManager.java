@@ -0,0 +1,869 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.centresnaprecyclerview;
+
+import android.content.Context;
+import android.support.annotation.Nullable;
+import android.support.v4.view.ViewCompat;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * <p>{@link RecyclerView.LayoutManager} built around a centre keyline. The child closest to the
+ * centre of the {@link RecyclerView} is laid out first, at the position given by its
+ * {@link SnapGeometry}, and the others are laid out outwards from it until the view, plus an
+ * optional margin either side, is filled. Only those children are ever attached.</p>
+ *
+ * <p>The list runs along a main axis, horizontal by default, which is set by
+ * {@link #setOrientation(int)} and may be reversed by {@link #setReverseLayout(boolean)}. All
+ * layout and scrolling is done in terms of the start and end of the main axis, so both
+ * orientations take the same path.</p>
+ *
+ * <p>The scroll range runs from the first child being centred to the last child being centred,
+ * so the empty space needed at each end is part of the layout itself, rather than being added by
+ * an {@link RecyclerView.ItemDecoration}.</p>
+ *
+ * <p>Scrolls to a {@code position} are centre-aligned: the scroll offset that centres the
+ * position is calculated by the {@link SnapGeometry}, and the next layout pass lays out directly
+ * from it. Until the measurements are provided by {@link #setNewMeasurements(int, int)}, no
+ * children are laid out.</p>
+ *
+ * <p>In circular mode the first child follows the last, and the list scrolls endlessly either
+ * way. The scroll offset is kept within one loop, so nothing grows however far the list is
+ * scrolled.</p>
+ */
+public class CentreKeylineLayoutManager extends RecyclerView.LayoutManager {
+    /**
+     * The default time budget for a smooth scroll, in milliseconds.
+     */
+    public static final int DEFAULT_MAX_SMOOTH_SCROLL_DURATION = 250;
+
+    public static final int HORIZONTAL = LinearLayoutManager.HORIZONTAL;
+    public static final int VERTICAL = LinearLayoutManager.VERTICAL;
+
+    // The generation of a child that has not been transformed.
+    private static final int NO_TRANSFORM_GENERATION = 0;
+
+    private final SnapGeometry mSnapGeometry = new SnapGeometry();
+    private final SnapOrientation mOrientation = new SnapOrientation(this);
+    private final int mDensityDpi;
+    private int mMaxSmoothScrollDuration = DEFAULT_MAX_SMOOTH_SCROLL_DURATION;
+    private SnapAnimationPolicy mSnapAnimationPolicy = SnapAnimationPolicy.DEFAULT;
+    private int mPendingCentrePosition = RecyclerView.NO_POSITION;
+    private int mPendingCentreOffset;
+    private int mSmoothScrollDirection;
+    private int mScrollOffset;
+    private int mLayoutMargin;
+    private boolean mRecycleChildrenOnDetach;
+    private SnapMetrics mSnapMetrics;
+    private CentreTransformer mCentreTransformer;
+    // Starts from NO_TRANSFORM_GENERATION, and is never it again once a transformer has been set.
+    private int mTransformGeneration = NO_TRANSFORM_GENERATION;
+    private boolean mHardwareLayers;
+
+    public CentreKeylineLayoutManager(Context context) {
+        mDensityDpi = context.getResources().getDisplayMetrics().densityDpi;
+    }
+
+    @Override
+    public RecyclerView.LayoutParams generateDefaultLayoutParams() {
+        return new LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT,
+                ViewGroup.LayoutParams.WRAP_CONTENT);
+    }
+
+    @Override
+    public RecyclerView.LayoutParams generateLayoutParams(Context context, AttributeSet attrs) {
+        return new LayoutParams(context, attrs);
+    }
+
+    @Override
+    public RecyclerView.LayoutParams generateLayoutParams(ViewGroup.LayoutParams lp) {
+        if (lp instanceof ViewGroup.MarginLayoutParams) {
+            return new LayoutParams((ViewGroup.MarginLayoutParams) lp);
+        }
+        return new LayoutParams(lp);
+    }
+
+    @Override
+    public boolean checkLayoutParams(RecyclerView.LayoutParams lp) {
+        return lp instanceof LayoutParams;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>While the {@link SnapNavigationController} handles keys, focus follows the centre, so a
+     * focused child is not brought into view. Otherwise the framework scrolls it into view as
+     * usual, and the list snaps once that scroll settles.</p>
+     */
+    @Override
+    public boolean onRequestChildFocus(RecyclerView parent, RecyclerView.State state, View child,
+                                       View focused) {
+        return parent instanceof CentreSnapRecyclerView
+                && ((CentreSnapRecyclerView) parent).isKeyNavigationEnabled();
+    }
+
+    @Override
+    public boolean canScrollHorizontally() {
+        return !mOrientation.isVertical();
+    }
+
+    @Override
+    public boolean canScrollVertically() {
+        return mOrientation.isVertical();
+    }
+
+    /**
+     * <p>Sets the main axis along which the children are laid out and scrolled.
+     * {@link #HORIZONTAL} by default. The child centred beforehand stays centred.</p>
+     *
+     * @param orientation {@link #HORIZONTAL} or {@link #VERTICAL}.
+     */
+    public void setOrientation(int orientation) {
+        if (orientation != HORIZONTAL && orientation != VERTICAL) {
+            throw new IllegalArgumentException("Invalid orientation: " + orientation);
+        }
+        boolean vertical = orientation == VERTICAL;
+        if (vertical != mOrientation.isVertical()) {
+            holdCentre();
+            mOrientation.setVertical(vertical);
+            requestLayout();
+        }
+    }
+
+    public int getOrientation() {
+        return mOrientation.isVertical() ? VERTICAL : HORIZONTAL;
+    }
+
+    /**
+     * <p>Sets whether the list starts from the right, or the bottom if vertical, rather than the
+     * left or top. Off by default. The child centred beforehand stays centred.</p>
+     *
+     * @param reverseLayout {@code true} to lay out from the end of the main axis.
+     */
+    public void setReverseLayout(boolean reverseLayout) {
+        if (reverseLayout != mOrientation.isReverse()) {
+            holdCentre();
+            mOrientation.setReverse(reverseLayout);
+            requestLayout();
+        }
+    }
+
+    public boolean getReverseLayout() {
+        return mOrientation.isReverse();
+    }
+
+    SnapOrientation getSnapOrientation() {
+        return mOrientation;
+    }
+
+    /**
+     * <p>Keeps the child at the centre there through the next layout pass, which the attached
+     * children cannot be relied on for once the main axis has changed.</p>
+     */
+    private void holdCentre() {
+        int scrollOffset = getSnapScrollOffset();
+        if (mPendingCentrePosition == RecyclerView.NO_POSITION
+                && scrollOffset != SnapGeometry.INVALID_OFFSET) {
+            int position = mSnapGeometry.getCentrePosition(scrollOffset, getItemCount());
+            setPendingCentrePosition(position,
+                    -mSnapGeometry.getSnapDelta(scrollOffset, position, getItemCount()));
+        }
+    }
+
+    /**
+     * <p>Sets how far beyond each edge of the {@link RecyclerView} children are kept attached, so
+     * that they are already laid out when they scroll into view. None by default.</p>
+     *
+     * @param layoutMargin The margin either side, in pixels.
+     */
+    public void setLayoutMargin(int layoutMargin) {
+        mLayoutMargin = layoutMargin;
+        requestLayout();
+    }
+
+    int getLayoutMargin() {
+        return mLayoutMargin;
+    }
+
+    /**
+     * <p>Sets whether the list wraps round, with the first child following the last, so that it
+     * can be scrolled endlessly in either direction. Positions stay adapter positions, and smooth
+     * scrolls take the shortest way round. Off by default.</p>
+     *
+     * @param circular {@code true} for circular mode.
+     */
+    public void setCircular(boolean circular) {
+        if (circular != mSnapGeometry.isCircular()) {
+            mSnapGeometry.setCircular(circular);
+            requestLayout();
+        }
+    }
+
+    public boolean isCircular() {
+        return mSnapGeometry.isCircular();
+    }
+
+    /**
+     * <p>Sets whether children are recycled when the {@link RecyclerView} is detached from its
+     * window, returning them to the view pool for other views sharing it. Off by default.</p>
+     *
+     * @param recycleChildrenOnDetach {@code true} to recycle children on detach.
+     */
+    public void setRecycleChildrenOnDetach(boolean recycleChildrenOnDetach) {
+        mRecycleChildrenOnDetach = recycleChildrenOnDetach;
+    }
+
+    @Override
+    public void onDetachedFromWindow(RecyclerView view, RecyclerView.Recycler recycler) {
+        super.onDetachedFromWindow(view, recycler);
+        if (mRecycleChildrenOnDetach) {
+            removeAndRecycleAllViews(recycler);
+            recycler.clear();
+        }
+    }
+
+    /**
+     * <p>Sets the {@link CentreTransformer} to apply to each child as it moves relative to the
+     * centre keyline. While a transformer is set, children are given hardware layers for as long
+     * as the list is scrolling, so that transforming them does not redraw their content.</p>
+     *
+     * <p>When the transformer is cleared, and whenever a transformed child is recycled, the child
+     * is put back to a scale and alpha of {@code 1} and an elevation of {@code 0}.</p>
+     *
+     * @param centreTransformer The transformer, or {@code null} for no transform.
+     */
+    public void setCentreTransformer(@Nullable CentreTransformer centreTransformer) {
+        mCentreTransformer = centreTransformer;
+        // Every child must be transformed again, whether or not it has moved.
+        if (++mTransformGeneration == NO_TRANSFORM_GENERATION) {
+            mTransformGeneration++;
+        }
+        if (centreTransformer == null) {
+            setHardwareLayers(false);
+            for (int i = getChildCount() - 1; i >= 0; i--) {
+                resetCentreTransform(getChildAt(i));
+            }
+        }
+        applyCentreTransforms();
+    }
+
+    /**
+     * <p>Undoes any transform of a child as it is recycled, so that it is transformed afresh
+     * wherever it is laid out next.</p>
+     *
+     * @param child The recycled child.
+     */
+    void onChildRecycled(View child) {
+        if (child.getLayoutParams() instanceof LayoutParams) {
+            resetCentreTransform(child);
+        }
+    }
+
+    private void resetCentreTransform(View child) {
+        LayoutParams lp = (LayoutParams) child.getLayoutParams();
+        if (lp.mTransformGeneration != NO_TRANSFORM_GENERATION) {
+            lp.mTransformGeneration = NO_TRANSFORM_GENERATION;
+            ViewCompat.setScaleX(child, 1f);
+            ViewCompat.setScaleY(child, 1f);
+            ViewCompat.setAlpha(child, 1f);
+            ViewCompat.setElevation(child, 0f);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>Gives children hardware layers while the list scrolls, if a {@link CentreTransformer}
+     * is set.</p>
+     */
+    @Override
+    public void onScrollStateChanged(int state) {
+        setHardwareLayers(mCentreTransformer != null && state != RecyclerView.SCROLL_STATE_IDLE);
+    }
+
+    private void setHardwareLayers(boolean hardwareLayers) {
+        if (hardwareLayers != mHardwareLayers) {
+            mHardwareLayers = hardwareLayers;
+            for (int i = getChildCount() - 1; i >= 0; i--) {
+                updateLayerType(getChildAt(i));
+            }
+        }
+    }
+
+    private void updateLayerType(View child) {
+        int layerType = mHardwareLayers ? ViewCompat.LAYER_TYPE_HARDWARE
+                : ViewCompat.LAYER_TYPE_NONE;
+        if (ViewCompat.getLayerType(child) != layerType) {
+            ViewCompat.setLayerType(child, layerType, null);
+        }
+    }
+
+    /**
+     * <p>Passes each attached child whose distance from the centre keyline has changed since it
+     * was last transformed to the {@link CentreTransformer}. Called after each layout pass and
+     * scroll, so at most once a frame while scrolling.</p>
+     */
+    private void applyCentreTransforms() {
+        CentreTransformer transformer = mCentreTransformer;
+        int childWidth = mSnapGeometry.getChildWidth();
+        if (transformer == null || childWidth <= 0) {
+            return;
+        }
+
+        SnapOrientation orientation = mOrientation;
+        float keyline = orientation.getSize() / 2f;
+        float maxDistance = transformer.getMaxDistance();
+        for (int i = getChildCount() - 1; i >= 0; i--) {
+            View child = getChildAt(i);
+            float centre = orientation.getStart(child) + orientation.getMeasurement(child) / 2f;
+            float distance = Math.max(-maxDistance,
+                    Math.min((centre - keyline) / childWidth, maxDistance));
+            LayoutParams lp = (LayoutParams) child.getLayoutParams();
+            if (lp.mTransformGeneration != mTransformGeneration || lp.mCentreDistance != distance) {
+                lp.mTransformGeneration = mTransformGeneration;
+                lp.mCentreDistance = distance;
+                transformer.transformChild(child, distance);
+            }
+            updateLayerType(child);
+        }
+    }
+
+    /**
+     * <p>Centres the given {@code position} in the next layout pass.</p>
+     *
+     * @param position {@inheritDoc}
+     * @see #smoothScrollToPosition(RecyclerView, RecyclerView.State, int)
+     */
+    @Override
+    public void scrollToPosition(int position) {
+        setPendingCentrePosition(position);
+        requestLayout();
+    }
+
+    /**
+     * <p>Sets a position to centre as part of the next layout pass, so that the first frame after
+     * the layout already shows it centred, without a further layout pass or any scrolling. This
+     * does not itself request a layout.</p>
+     *
+     * @param position The adapter position to centre.
+     */
+    public void setPendingCentrePosition(int position) {
+        setPendingCentrePosition(position, 0);
+    }
+
+    /**
+     * <p>As {@link #setPendingCentrePosition(int)}, but scrolled {@code offset} pixels past
+     * centring the position.</p>
+     *
+     * @param position The adapter position to centre.
+     * @param offset The distance past centring the position, in pixels.
+     */
+    public void setPendingCentrePosition(int position, int offset) {
+        mPendingCentrePosition = position;
+        mPendingCentreOffset = offset;
+    }
+
+    /**
+     * @return The position to be centred in the next layout pass, or
+     *         {@link RecyclerView#NO_POSITION} if there is none.
+     */
+    public int getPendingCentrePosition() {
+        return mPendingCentrePosition;
+    }
+
+    /**
+     * @return The distance past centring {@link #getPendingCentrePosition()}, in pixels.
+     */
+    public int getPendingCentreOffset() {
+        return mPendingCentreOffset;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>Lays out from the scroll offset that centres any position set by
+     * {@link #setPendingCentrePosition(int)}, or otherwise from the current scroll offset.</p>
+     */
+    @Override
+    public void onLayoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
+        if (mSnapMetrics != null) {
+            mSnapMetrics.onLayout();
+        }
+        int itemCount = state.getItemCount();
+        if (itemCount == 0 || !mSnapGeometry.isValid()) {
+            removeAndRecycleAllViews(recycler);
+            return;
+        }
+
+        int scrollOffset;
+        if (mPendingCentrePosition != RecyclerView.NO_POSITION) {
+            scrollOffset = mSnapGeometry.getCentredOffset(
+                    Math.min(mPendingCentrePosition, itemCount - 1)) + mPendingCentreOffset;
+            setPendingCentrePosition(RecyclerView.NO_POSITION, 0);
+        } else {
+            // Derived from the attached children, so that they stay where they are if items have
+            // been added or removed before them.
+            scrollOffset = getSnapScrollOffset();
+            if (scrollOffset == SnapGeometry.INVALID_OFFSET) {
+                scrollOffset = mScrollOffset;
+            }
+        }
+
+        mScrollOffset = clampScrollOffset(scrollOffset, itemCount);
+        detachAndScrapAttachedViews(recycler);
+        layoutFromScrollOffset(recycler, itemCount);
+        applyCentreTransforms();
+    }
+
+    @Override
+    public int scrollHorizontallyBy(int dx, RecyclerView.Recycler recycler,
+                                    RecyclerView.State state) {
+        return mOrientation.getDx(scrollBy(mOrientation.getDelta(dx, 0), recycler, state));
+    }
+
+    @Override
+    public int scrollVerticallyBy(int dy, RecyclerView.Recycler recycler,
+                                  RecyclerView.State state) {
+        return mOrientation.getDy(scrollBy(mOrientation.getDelta(0, dy), recycler, state));
+    }
+
+    /**
+     * <p>Scrolls by {@code delta} along the main axis, for either orientation.</p>
+     *
+     * @return The part of {@code delta} that was consumed.
+     */
+    private int scrollBy(int delta, RecyclerView.Recycler recycler, RecyclerView.State state) {
+        int scrollOffset = getSnapScrollOffset();
+        if (delta == 0 || scrollOffset == SnapGeometry.INVALID_OFFSET) {
+            return 0;
+        }
+
+        int itemCount = state.getItemCount();
+        int consumed = mSnapGeometry.isCircular()
+                ? delta : clampScrollOffset(scrollOffset + delta, itemCount) - scrollOffset;
+        if (consumed == 0) {
+            return 0;
+        }
+
+        mOrientation.offsetChildren(-consumed);
+        mScrollOffset = clampScrollOffset(scrollOffset + consumed, itemCount);
+        recycleDetachedChildren(recycler);
+        if (getChildCount() == 0) {
+            // Scrolled further than the children reached, so start again from the centre.
+            layoutFromScrollOffset(recycler, itemCount);
+        } else {
+            View first = getChildAt(0);
+            fillStart(recycler, getPosition(first) - 1, mOrientation.getStart(first), itemCount);
+            View last = getChildAt(getChildCount() - 1);
+            fillEnd(recycler, getPosition(last) + 1, mOrientation.getEnd(last), itemCount);
+        }
+        applyCentreTransforms();
+        return consumed;
+    }
+
+    @Override
+    public int computeHorizontalScrollOffset(RecyclerView.State state) {
+        return computeScrollOffset(state);
+    }
+
+    @Override
+    public int computeVerticalScrollOffset(RecyclerView.State state) {
+        return computeScrollOffset(state);
+    }
+
+    @Override
+    public int computeHorizontalScrollExtent(RecyclerView.State state) {
+        return computeScrollExtent();
+    }
+
+    @Override
+    public int computeVerticalScrollExtent(RecyclerView.State state) {
+        return computeScrollExtent();
+    }
+
+    @Override
+    public int computeHorizontalScrollRange(RecyclerView.State state) {
+        return computeScrollRange(state);
+    }
+
+    @Override
+    public int computeVerticalScrollRange(RecyclerView.State state) {
+        return computeScrollRange(state);
+    }
+
+    private int computeScrollOffset(RecyclerView.State state) {
+        int scrollOffset = getSnapScrollOffset();
+        if (scrollOffset == SnapGeometry.INVALID_OFFSET) {
+            return 0;
+        }
+        int offset = scrollOffset - mSnapGeometry.getCentredOffset(0);
+        // Scroll bars measure from the left or top, whichever end the list starts from.
+        return mOrientation.isReverse()
+                ? computeScrollRange(state) - computeScrollExtent() - offset : offset;
+    }
+
+    private int computeScrollExtent() {
+        return getChildCount() == 0 ? 0 : mOrientation.getSize();
+    }
+
+    private int computeScrollRange(RecyclerView.State state) {
+        int itemCount = state.getItemCount();
+        if (getChildCount() == 0 || itemCount == 0) {
+            return 0;
+        }
+        return mSnapGeometry.getCentredOffset(itemCount - 1) - mSnapGeometry.getCentredOffset(0)
+                + mOrientation.getSize();
+    }
+
+    /**
+     * <p>Lays out the child that is centred at the current scroll offset, and then the children
+     * either side of it.</p>
+     */
+    private void layoutFromScrollOffset(RecyclerView.Recycler recycler, int itemCount) {
+        int position = mSnapGeometry.getCentrePosition(mScrollOffset, itemCount);
+        int start = mSnapGeometry.getItemStart(position) - mScrollOffset;
+        int end = addChild(recycler, position, start, true);
+        fillStart(recycler, position - 1, start, itemCount);
+        fillEnd(recycler, position + 1, end, itemCount);
+    }
+
+    /**
+     * <p>Adds children before those attached until the start of the layout area is reached. In a
+     * circular list no more than {@code itemCount} children are ever attached, so that a loop
+     * shorter than the screen, or of children measuring nothing, neither attaches an item twice
+     * nor fills forever.</p>
+     */
+    private void fillStart(RecyclerView.Recycler recycler, int position, int end,
+                           int itemCount) {
+        boolean circular = mSnapGeometry.isCircular();
+        while ((circular ? getChildCount() < itemCount : position >= 0)
+                && end > -mLayoutMargin) {
+            end = addChild(recycler, mSnapGeometry.wrapPosition(position, itemCount), end,
+                    false);
+            position--;
+        }
+    }
+
+    /**
+     * <p>Adds children after those attached until the end of the layout area is reached, with the
+     * same bound as {@link #fillStart}.</p>
+     */
+    private void fillEnd(RecyclerView.Recycler recycler, int position, int start,
+                         int itemCount) {
+        boolean circular = mSnapGeometry.isCircular();
+        int limit = mOrientation.getSize() + mLayoutMargin;
+        while ((circular ? getChildCount() < itemCount : position < itemCount)
+                && start < limit) {
+            start = addChild(recycler, mSnapGeometry.wrapPosition(position, itemCount), start,
+                    true);
+            position++;
+        }
+    }
+
+    /**
+     * <p>Adds and lays out the child at {@code position}.</p>
+     *
+     * @param edge The start of the child if {@code atEnd}, else its end.
+     * @param atEnd {@code true} to add the child after those attached, else before them.
+     * @return The opposite edge of the child to {@code edge}.
+     */
+    private int addChild(RecyclerView.Recycler recycler, int position, int edge, boolean atEnd) {
+        View child = recycler.getViewForPosition(position);
+        if (mCentreTransformer == null) {
+            // A child from the view cache skips recycling, so may still hold an old transform.
+            resetCentreTransform(child);
+        }
+        if (atEnd) {
+            addView(child);
+        } else {
+            addView(child, 0);
+        }
+        measureChildWithMargins(child, 0, 0);
+
+        int start = atEnd ? edge : edge - mOrientation.getMeasurement(child);
+        int end = mOrientation.layout(child, start);
+        return atEnd ? end : start;
+    }
+
+    private void recycleDetachedChildren(RecyclerView.Recycler recycler) {
+        SnapOrientation orientation = mOrientation;
+        int limit = orientation.getSize() + mLayoutMargin;
+        for (int i = getChildCount() - 1; i >= 0; i--) {
+            View child = getChildAt(i);
+            if (orientation.getEnd(child) < -mLayoutMargin || orientation.getStart(child) > limit) {
+                if (mHardwareLayers) {
+                    // Pooled children should not hold on to their layers.
+                    ViewCompat.setLayerType(child, ViewCompat.LAYER_TYPE_NONE, null);
+                }
+                if (child.hasFocus() && child.getParent() instanceof CentreSnapRecyclerView) {
+                    // Otherwise focus would move to whichever view the framework finds next.
+                    ((CentreSnapRecyclerView) child.getParent()).parkFocus();
+                }
+                removeAndRecycleViewAt(i, recycler);
+            }
+        }
+    }
+
+    private int clampScrollOffset(int scrollOffset, int itemCount) {
+        if (mSnapGeometry.isCircular()) {
+            return mSnapGeometry.normaliseScrollOffset(scrollOffset, itemCount);
+        }
+        int min = mSnapGeometry.getCentredOffset(0);
+        int max = mSnapGeometry.getCentredOffset(itemCount - 1);
+        return Math.max(min, Math.min(scrollOffset, max));
+    }
+
+    /**
+     * <p>Smoothly scrolls the child at {@code position} to the centre, taking no longer than the
+     * time set by {@link #setMaxSmoothScrollDuration(int)} however far away it is:</p>
+     * <ul>
+     *     <li>
+     *         <strong>Near</strong><br />
+     *         <p>If the child is within a third of the size of the {@code recyclerView}, we
+     *         animate directly to it.</p>
+     *     </li>
+     *     <li>
+     *         <strong>Far</strong>
+     *         <p>Otherwise, we first jump so that the child is that distance away, and then
+     *         animate the rest of the way. The children in between are never laid out.</p>
+     *     </li>
+     *     <li>
+     *         <strong>Default</strong>
+     *         <p>If we have no information about the measurements of {@code recyclerView}, we
+     *         centre the child in the next layout pass instead. This should never happen.</p>
+     *     </li>
+     * </ul>
+     * <p>In both of the first two cases, the animation finishes by centring the child using its
+     * actual measurements once it is attached.</p>
+     */
+    @Override
+    public void smoothScrollToPosition(RecyclerView recyclerView, RecyclerView.State state, int position) {
+        int direction = mSmoothScrollDirection;
+        mSmoothScrollDirection = 0;
+        if (mSnapGeometry.isValid()) {
+            // A new scroller each time, as RecyclerView may still be running the last one.
+            CentreSmoothScroller smoothScroller = new CentreSmoothScroller(this, mDensityDpi,
+                    mSnapAnimationPolicy, mMaxSmoothScrollDuration, direction);
+            smoothScroller.setTargetPosition(position);
+            startSmoothScroll(smoothScroller);
+        } else {
+            scrollToPosition(position);
+        }
+    }
+
+    /**
+     * <p>Sets the way round the loop that the next smooth scroll takes in circular mode, rather
+     * than the shortest way.</p>
+     *
+     * @param direction {@code 1} towards the end, {@code -1} towards the start, or {@code 0} for
+     *                  the shortest way.
+     */
+    void setSmoothScrollDirection(int direction) {
+        mSmoothScrollDirection = direction;
+    }
+
+    /**
+     * <p>Sets the time budget for {@link #smoothScrollToPosition(RecyclerView,
+     * RecyclerView.State, int)}.</p>
+     *
+     * @param maxDuration The maximum duration of a smooth scroll, in milliseconds.
+     */
+    public void setMaxSmoothScrollDuration(int maxDuration) {
+        mMaxSmoothScrollDuration = maxDuration;
+    }
+
+    /**
+     * <p>Sets the duration and interpolator of each smooth scroll animation, within the time
+     * budget set by {@link #setMaxSmoothScrollDuration(int)}.</p>
+     *
+     * @param animationPolicy The policy, or {@link SnapAnimationPolicy#DEFAULT}.
+     */
+    public void setSnapAnimationPolicy(SnapAnimationPolicy animationPolicy) {
+        mSnapAnimationPolicy = animationPolicy;
+    }
+
+    /**
+     * <p>Calculates the distance to scroll by to centre the child at {@code position}. If the
+     * child is attached, this is exact, from its laid out start and size, so that scrolling by it
+     * always leaves the child centred to the pixel. In circular mode, where a short list may show
+     * a child more than once, the nearest is used.</p>
+     *
+     * @param position The adapter position of the child.
+     * @return The delta to scroll by, or {@code 0} if it cannot be calculated.
+     */
+    public int getSnapDelta(int position) {
+        View child = findNearestChild(position);
+        if (child != null) {
+            return getSnapDelta(child);
+        }
+
+        int scrollOffset = getSnapScrollOffset();
+        return scrollOffset == SnapGeometry.INVALID_OFFSET
+                ? 0 : mSnapGeometry.getSnapDelta(scrollOffset, position, getItemCount());
+    }
+
+    /**
+     * <p>As {@link #getSnapDelta(int)}, but in circular mode going the given way round the loop,
+     * even if that is the long way.</p>
+     *
+     * @param position The adapter position of the child.
+     * @param direction {@code 1} towards the end, {@code -1} towards the start, or {@code 0} for
+     *                  the shortest way.
+     * @return The delta to scroll by, or {@code 0} if it cannot be calculated.
+     */
+    int getSnapDelta(int position, int direction) {
+        if (direction == 0 || !mSnapGeometry.isCircular()) {
+            return getSnapDelta(position);
+        }
+
+        // A short loop may show the position on both sides of the centre.
+        boolean found = false;
+        int nearestDelta = 0;
+        for (int i = getChildCount() - 1; i >= 0; i--) {
+            View child = getChildAt(i);
+            int delta = getSnapDelta(child);
+            if (getPosition(child) == position && Integer.signum(delta) != -direction
+                    && (!found || Math.abs(delta) < Math.abs(nearestDelta))) {
+                found = true;
+                nearestDelta = delta;
+            }
+        }
+        if (found) {
+            return nearestDelta;
+        }
+
+        int delta = getSnapDelta(position);
+        return Integer.signum(delta) != -direction
+                ? delta : delta + direction * mSnapGeometry.getLoopLength(getItemCount());
+    }
+
+    /**
+     * @param position The adapter position of the child.
+     * @return The attached child showing {@code position} that is nearest the centre, or
+     *         {@code null} if none is attached.
+     */
+    View findNearestChild(int position) {
+        View nearest = null;
+        int nearestDelta = 0;
+        for (int i = getChildCount() - 1; i >= 0; i--) {
+            View child = getChildAt(i);
+            if (getPosition(child) == position) {
+                int delta = Math.abs(getSnapDelta(child));
+                if (nearest == null || delta < nearestDelta) {
+                    nearest = child;
+                    nearestDelta = delta;
+                }
+            }
+        }
+        return nearest;
+    }
+
+    private int getSnapDelta(View child) {
+        return mOrientation.getStart(child)
+                - mSnapGeometry.getCentredLeft(mOrientation.getMeasurement(child));
+    }
+
+    /**
+     * <p>Derives the current scroll offset, as understood by {@link SnapGeometry}, from the middle
+     * attached child. As that child is the closest to the centre, any variance in child sizes has
+     * the least effect on the result.</p>
+     *
+     * @return The current scroll offset, or {@link SnapGeometry#INVALID_OFFSET} if there are no
+     *         attached children or the measurements are not valid.
+     */
+    public int getSnapScrollOffset() {
+        int childCount = getChildCount();
+        if (childCount == 0 || !mSnapGeometry.isValid()) {
+            return SnapGeometry.INVALID_OFFSET;
+        }
+
+        View anchor = getChildAt(childCount / 2);
+        int anchorPosition = getPosition(anchor);
+        if (anchorPosition == RecyclerView.NO_POSITION) {
+            return SnapGeometry.INVALID_OFFSET;
+        }
+        return mSnapGeometry.getScrollOffset(anchorPosition, mOrientation.getStart(anchor));
+    }
+
+    /**
+     * <p>Informs this {@code LayoutManager} that its stored measurements are no longer valid, and
+     * measurement-aware scrolls cannot be relied upon.</p>
+     */
+    public void invalidateMeasurements() {
+        mSnapGeometry.invalidate();
+    }
+
+    /**
+     * <p>Informs this {@code LayoutManager} of new measurements, allowing it to perform
+     * measurement-aware scrolls correctly.</p>
+     *
+     * @param width The size of the associated {@link RecyclerView} along the main axis.
+     * @param childWidth The size of each child {@link View} in the {@code RecyclerView} along the
+     *                   main axis.
+     */
+    public void setNewMeasurements(int width, int childWidth) {
+        mSnapGeometry.setMeasurements(width, childWidth);
+    }
+
+    /**
+     * <p>Gets the {@link SnapGeometry} kept up to date by {@link #setNewMeasurements(int, int)},
+     * allowing other components to perform the same centring calculations as this
+     * {@code LayoutManager}.</p>
+     *
+     * @return The {@link SnapGeometry} for the associated {@link RecyclerView}.
+     */
+    public SnapGeometry getSnapGeometry() {
+        return mSnapGeometry;
+    }
+
+    void setSnapMetrics(SnapMetrics snapMetrics) {
+        mSnapMetrics = snapMetrics;
+    }
+
+    /**
+     * <p>{@link RecyclerView.LayoutParams} recording the transform last applied to each child, so
+     * that only children that have moved are transformed again.</p>
+     */
+    public static class LayoutParams extends RecyclerView.LayoutParams {
+        float mCentreDistance;
+        int mTransformGeneration;
+
+        public LayoutParams(Context context, AttributeSet attrs) {
+            super(context, attrs);
+        }
+
+        public LayoutParams(int width, int height) {
+            super(width, height);
+        }
+
+        public LayoutParams(ViewGroup.MarginLayoutParams source) {
+            super(source);
+        }
+
+        public LayoutParams(ViewGroup.LayoutParams source) {
+            super(source);
+        }
+    }
+}
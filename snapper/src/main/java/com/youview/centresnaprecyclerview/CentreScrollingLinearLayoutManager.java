@@ -37,7 +37,13 @@ import android.view.View;
  * {@link #smoothScrollToPosition(RecyclerView, RecyclerView.State, int)} will attempt a
  * centre-aligned scroll if possible, but revert to default behaviour if the required measurements
  * aren't present (as provided by {@link #setNewMeasurements(int, int)}).</p>
+ *
+ * @deprecated {@link CentreSnapRecyclerView} now creates and lays out with its own
+ *             {@link CentreKeylineLayoutManager}, which centres children exactly and needs no end
+ *             padding. This class is kept with its 1.1.0 behaviour for code that used it
+ *             directly, and will be removed in the next major version.
  */
+@Deprecated
 public class CentreScrollingLinearLayoutManager extends LinearLayoutManager {
     // We guard against centre-align scrolls happening before we've been updated about the new
     // sizes, though this shouldn't happen.
@@ -0,0 +1,162 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.centresnaprecyclerview;
+
+import android.os.SystemClock;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+
+/**
+ * <p>{@link RecyclerView.SmoothScroller} that centres its target within a fixed time budget,
+ * whatever the distance.</p>
+ *
+ * <p>If the target is more than a third of the view's size away, the scroller first jumps so
+ * that the target is just that far away, and then animates the remaining stretch. The children in
+ * between are never laid out or bound, and the scroll always ends in an animation rather than a
+ * jump.</p>
+ *
+ * <p>Each animation takes the duration and interpolator of the {@link SnapAnimationPolicy}, cut
+ * short if needed to fit in what remains of the time budget. A final slice of the budget is kept
+ * for the animation that centres the attached target, and it is given that slice even if the
+ * budget has run out, so the scroll never ends in a single-frame jump.</p>
+ */
+class CentreSmoothScroller extends RecyclerView.SmoothScroller {
+    // About three frames at 60fps.
+    private static final int FINAL_ANIMATION_DURATION = 50;
+
+    private final CentreKeylineLayoutManager mLayoutManager;
+    private final int mDensityDpi;
+    private final SnapAnimationPolicy mAnimationPolicy;
+    private final int mMaxDuration;
+    private final int mDirection;
+
+    private long mStartTime;
+    private boolean mJumped;
+    private boolean mSeeking;
+
+    /**
+     * @param animationPolicy The duration and interpolator of each animation.
+     * @param maxDuration The time budget for the whole scroll, in milliseconds.
+     * @param direction The way round the loop to the target in circular mode, {@code 1} towards
+     *                  the end, {@code -1} towards the start, or {@code 0} for the shortest way.
+     */
+    CentreSmoothScroller(CentreKeylineLayoutManager layoutManager, int densityDpi,
+            SnapAnimationPolicy animationPolicy, int maxDuration, int direction) {
+        mLayoutManager = layoutManager;
+        mDensityDpi = densityDpi;
+        mAnimationPolicy = animationPolicy;
+        mMaxDuration = maxDuration;
+        mDirection = direction;
+    }
+
+    @Override
+    protected void onStart() {
+        mStartTime = SystemClock.uptimeMillis();
+        mJumped = false;
+        mSeeking = false;
+    }
+
+    @Override
+    protected void onStop() {
+        // Nothing to clean up.
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>Called while the target is not attached. A distant target is jumped towards, otherwise a
+     * single animation is started towards where the {@link SnapGeometry} says the target is, to be
+     * refined once the target is attached.</p>
+     */
+    @Override
+    protected void onSeekTargetStep(int dx, int dy, RecyclerView.State state, Action action) {
+        if (mSeeking) {
+            // Let the animation already under way bring the target into view.
+            return;
+        }
+
+        int targetPosition = getTargetPosition();
+        SnapGeometry geometry = mLayoutManager.getSnapGeometry();
+        int scrollOffset = mLayoutManager.getSnapScrollOffset();
+        if (scrollOffset == SnapGeometry.INVALID_OFFSET) {
+            action.jumpTo(targetPosition);
+            return;
+        }
+
+        int distance = mLayoutManager.getSnapDelta(targetPosition, mDirection);
+        int targetOffset = scrollOffset + distance;
+        int approachDistance = geometry.getWidth() / 3;
+        if (!mJumped && Math.abs(distance) > approachDistance) {
+            // Jump to the child centred when the target is approachDistance away. The layout
+            // manager centres it, so the target will be attached when the next frame runs.
+            mJumped = true;
+            int approachOffset = targetOffset - Integer.signum(distance) * approachDistance;
+            int approachPosition = geometry.getCentrePosition(approachOffset, state.getItemCount());
+            if (approachPosition != targetPosition) {
+                action.jumpTo(approachPosition);
+                return;
+            }
+        }
+
+        mSeeking = true;
+        update(action, distance, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>Finishes the scroll with an exact centring of the attached target, in whatever remains of
+     * the time budget, but never less than the final slice kept for it.</p>
+     */
+    @Override
+    protected void onTargetFound(View targetView, RecyclerView.State state, Action action) {
+        // In circular mode, targetView may not be the nearest of several children showing the
+        // target, or may lie the other way round the loop.
+        int distance = mLayoutManager.getSnapDelta(getTargetPosition(), mDirection);
+        if (distance != 0) {
+            update(action, distance, true);
+        }
+    }
+
+    /**
+     * <p>Animates by {@code distance} along the main axis of the layout manager.</p>
+     *
+     * @param last {@code true} for the animation centring the attached target.
+     */
+    private void update(Action action, int distance, boolean last) {
+        SnapOrientation orientation = mLayoutManager.getSnapOrientation();
+        action.update(orientation.getDx(distance), orientation.getDy(distance),
+                getRemainingDuration(distance, last), mAnimationPolicy.getInterpolator());
+    }
+
+    /**
+     * <p>Fits the policy's duration for {@code distance} into the time budget. Earlier animations
+     * leave the final slice unused, and the last animation has at least that slice.</p>
+     */
+    private int getRemainingDuration(int distance, boolean last) {
+        int remaining = mMaxDuration - (int) (SystemClock.uptimeMillis() - mStartTime);
+        int finalSlice = Math.min(FINAL_ANIMATION_DURATION, mMaxDuration / 2);
+        int available = Math.max(finalSlice, last ? remaining : remaining - finalSlice);
+        int duration = mAnimationPolicy.getDuration(distance, mDensityDpi);
+        return Math.max(1, Math.min(duration, available));
+    }
+}
@@ -25,23 +25,57 @@ package com.youview.centresnaprecyclerview;
 
 import android.content.Context;
 import android.graphics.Rect;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.support.annotation.Nullable;
 import android.support.v7.widget.RecyclerView;
 import android.util.AttributeSet;
+import android.util.DisplayMetrics;
+import android.view.KeyEvent;
 import android.view.View;
+import android.view.ViewConfiguration;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
 
 /**
  * <p>Abstract implementation of a {@link RecyclerView} that provides <i>most</i> of the work for
  * a centre-aligned and centre-snapping {@code RecyclerView}. Sub-classes must implement
  * {@link #getChildWidth()} to provide the width of child {@code View}s, as the behaviours
  * that make centring possible are very measurement-aware.</p>
+ *
+ * <p>The list is horizontal unless {@link #setOrientation(int)} makes it vertical. Every
+ * measurement then applies to the main axis instead: the width of this view and of its children
+ * is their height in a vertical list.</p>
  */
 public abstract class CentreSnapRecyclerView extends RecyclerView {
-    CentreScrollingLinearLayoutManager mLayoutManager;
+    CentreKeylineLayoutManager mLayoutManager;
+    CentreSnapScrollListener mScrollListener;
+    SnapNavigationController mNavigationController;
+    private boolean mKeyNavigationEnabled = true;
+    private boolean mFocusParked;
+    private int mParkedDescendantFocusability;
+
+    private ChildWidthProvider mChildWidthProvider;
+    private final OffsetIndex mOffsetIndex = new OffsetIndex();
+    private final AdapterDataObserver mChildWidthObserver = new ChildWidthObserver();
+    SnapMetrics mSnapMetrics;
+    SnapCoordinator mSnapCoordinator;
+    private int mRailType;
+    final CentreTracker mCentreTracker = new CentreTracker(this);
+    private final ViewPreinflater mViewPreinflater = new ViewPreinflater(this);
+    private boolean mViewPreinflationEnabled = true;
+    private RecyclerListener mRecyclerListener;
 
     // State variables
     private int mMeasuredWidth;
     private boolean mMeasurementsValid;
+    private int mRestoredPosition = NO_POSITION;
+    private int mRestoredOffset;
+    private RailStateCache mRailStateCache;
+    private long mRailId = NO_ID;
+    // Set once the state is saved on detach, which is then the state to keep until reattached.
+    private boolean mRailStateSaved;
 
     public CentreSnapRecyclerView(Context context) {
         super(context);
@@ -62,49 +96,211 @@ public abstract class CentreSnapRecyclerView extends RecyclerView {
      * <p>Sets up initial state of this {@code RecyclerView}.</p>
      */
     protected void init() {
-        mLayoutManager = new CentreScrollingLinearLayoutManager(getContext(), HORIZONTAL, false);
+        mLayoutManager = new CentreKeylineLayoutManager(getContext());
         setLayoutManager(mLayoutManager);
-        addOnScrollListener(createScrollListener());
+        mScrollListener = createScrollListener();
+        addOnScrollListener(mScrollListener);
+        mNavigationController = new SnapNavigationController(this);
+        super.setRecyclerListener(new ChildRecycler());
 
         ItemDecoration defaultItemDecoration = getDefaultItemDecoration();
         if (defaultItemDecoration != null) {
-            addItemDecoration(getDefaultItemDecoration());
+            addItemDecoration(defaultItemDecoration);
         }
     }
 
     /**
      * <p>Implementation-specific method to retrieve the width of each child shown in this
-     * {@link RecyclerView}. Fixed-width works best, but if there is a marginal variance in width,
-     * an average tends to do the trick.</p>
+     * {@link RecyclerView}, or its height in a vertical list. Fixed-width works best, but if there
+     * is a marginal variance in width, an average tends to do the trick.</p>
      *
      * @return The width (fixed or average) of children of this {@link RecyclerView}.
      */
     protected abstract int getChildWidth();
 
+    /**
+     * <p>Sets a {@link ChildWidthProvider} for lists whose children vary in width. The widths are
+     * held in an {@link OffsetIndex}, which is kept up to date as the adapter changes, so that
+     * centring and snapping calculations are exact without relying on attached children.
+     * {@link #getChildWidth()} is still used as the typical width of a child.</p>
+     *
+     * @param childWidthProvider The {@link ChildWidthProvider}, or {@code null} if every child is
+     *                           {@link #getChildWidth()} wide.
+     */
+    public void setChildWidthProvider(@Nullable ChildWidthProvider childWidthProvider) {
+        mChildWidthProvider = childWidthProvider;
+        rebuildOffsetIndex();
+        requestLayout();
+    }
+
+    private void rebuildOffsetIndex() {
+        rebuildOffsetIndex(0);
+    }
+
+    private void rebuildOffsetIndex(int positionStart) {
+        if (mChildWidthProvider == null) {
+            getSnapGeometry().setOffsetIndex(null);
+        } else {
+            Adapter adapter = getAdapter();
+            int itemCount = adapter != null ? adapter.getItemCount() : 0;
+            mOffsetIndex.rebuildFrom(mChildWidthProvider, positionStart, itemCount);
+            getSnapGeometry().setOffsetIndex(mOffsetIndex);
+        }
+    }
+
     /**
      * <p>Provides a {@link RecyclerView.ItemDecoration} that gets added by default to this
-     * {@code CentreSnapRecyclerView}. This base implementation creates empty space at the beginning
-     * and end of the view such that the first and last elements can reach the centre.</p>
-     * <p>It is safe to return {@code null} from this method if this is not desired.</p>
+     * {@code CentreSnapRecyclerView}. The {@link CentreKeylineLayoutManager} leaves the space
+     * needed for the first and last children to reach the centre itself, so this base
+     * implementation returns {@code null}.</p>
+     * <p>Any decoration returned must not change the widths of children from those given by
+     * {@link #getChildWidth()} or the {@link ChildWidthProvider}.</p>
      *
-     * @return An {@link RecyclerView.ItemDecoration} that adds empty space to the start and end of
-     *         the {@code RecyclerView} to allow all children to be centred.
+     * @return An {@link RecyclerView.ItemDecoration} to add, or {@code null}.
+     * @deprecated In 1.1.0, this returned a decoration padding the first and last children,
+     *             which the layout manager now does itself. Add any other decorations with
+     *             {@link #addItemDecoration(RecyclerView.ItemDecoration)}. This method will be
+     *             removed in the next major version.
      */
+    @Deprecated
     @Nullable
     protected ItemDecoration getDefaultItemDecoration() {
-        return new ItemDecoration() {
-            @Override
-            public void getItemOffsets(Rect outRect, View view, RecyclerView parent, State state) {
-                int parentWidth = parent.getWidth();
-                int spacingSize = (parentWidth - getChildWidth()) / 2;
-                int position = parent.getChildAdapterPosition(view);
-                if (position == 0) {
-                    outRect.left = spacingSize;
-                } else if (position == parent.getAdapter().getItemCount() - 1) {
-                    outRect.right = spacingSize;
-                }
-            }
-        };
+        return null;
+    }
+
+    /**
+     * <p>Gets the {@link SnapGeometry} describing the current measurements of this
+     * {@code CentreSnapRecyclerView}, which is updated in
+     * {@link #onMeasurementsUpdated(int)}.</p>
+     *
+     * @return The {@link SnapGeometry} shared with the {@link CentreKeylineLayoutManager}.
+     */
+    public SnapGeometry getSnapGeometry() {
+        return mLayoutManager.getSnapGeometry();
+    }
+
+    /**
+     * <p>Gets the current scroll offset, as understood by {@link SnapGeometry}.</p>
+     *
+     * @return The current scroll offset, or {@link SnapGeometry#INVALID_OFFSET} if it cannot be
+     *         calculated.
+     * @see CentreKeylineLayoutManager#getSnapScrollOffset()
+     */
+    public int getSnapScrollOffset() {
+        return mLayoutManager.getSnapScrollOffset();
+    }
+
+    /**
+     * <p>Enables or disables predictive flings, where each fling is retargeted as it starts so
+     * that it comes to rest with an item exactly centred. This avoids a second, corrective scroll
+     * after every fling. Disabled by default.</p>
+     *
+     * @param enabled {@code true} to enable predictive flings.
+     * @see CentreSnapScrollListener#setFlingPredictor(FlingPredictor)
+     */
+    public void setPredictiveFlingEnabled(boolean enabled) {
+        mScrollListener.setFlingPredictor(enabled ? createFlingPredictor() : null);
+    }
+
+    /**
+     * <p>Sets a {@link PreloadListener} to tell which items are predicted to be on screen once
+     * each scroll comes to rest, so that their content can be fetched ahead of time.</p>
+     *
+     * @param preloadListener The listener, or {@code null} to stop predicting.
+     * @see CentreSnapScrollListener#setPreloadListener(PreloadListener, FlingPredictor)
+     */
+    public void setPreloadListener(@Nullable PreloadListener preloadListener) {
+        mScrollListener.setPreloadListener(preloadListener,
+                preloadListener != null ? createFlingPredictor() : null);
+    }
+
+    private FlingPredictor createFlingPredictor() {
+        float density = getResources().getDisplayMetrics().density;
+        int maxVelocity = ViewConfiguration.get(getContext()).getScaledMaximumFlingVelocity();
+        return new FlingPredictor(density, ViewConfiguration.getScrollFriction(), maxVelocity);
+    }
+
+    /**
+     * <p>Sets the {@link SnapMetrics} to record how each snap performs. Disabled by default, in
+     * which case nothing is recorded.</p>
+     *
+     * @param snapMetrics The metrics to record, or {@code null} to disable them.
+     */
+    public void setSnapMetrics(@Nullable SnapMetrics snapMetrics) {
+        mSnapMetrics = snapMetrics;
+        mLayoutManager.setSnapMetrics(snapMetrics);
+        Adapter adapter = getAdapter();
+        if (adapter != null) {
+            ((SnapRecyclerAdapter) adapter).setSnapMetrics(snapMetrics);
+        }
+    }
+
+    /**
+     * <p>Joins this rail to a {@link SnapCoordinator}, sharing its view pool, measurements and snap
+     * animations with the other rails that have joined it. Leaves any previous coordinator.</p>
+     *
+     * @param snapCoordinator The coordinator to join, or {@code null} to leave the current one.
+     * @param railType Rails of the same type share their child width, so should only be the same
+     *                 for rails whose {@link #getChildWidth()} is the same.
+     */
+    public void setSnapCoordinator(@Nullable SnapCoordinator snapCoordinator, int railType) {
+        if (mSnapCoordinator != null) {
+            mSnapCoordinator.leave(this);
+        }
+
+        mSnapCoordinator = snapCoordinator;
+        mRailType = railType;
+        mLayoutManager.setRecycleChildrenOnDetach(snapCoordinator != null);
+        if (snapCoordinator != null) {
+            snapCoordinator.join(this);
+        }
+        mMeasurementsValid = false;
+        requestLayout();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>Gives the {@link CentreSnapScrollListener} the chance to retarget the fling before it
+     * starts.</p>
+     */
+    @Override
+    public boolean fling(int velocityX, int velocityY) {
+        SnapOrientation orientation = mLayoutManager.getSnapOrientation();
+        int velocity = mScrollListener.onFling(this, orientation.getDelta(velocityX, velocityY));
+        return super.fling(orientation.getDx(velocity), orientation.getDy(velocity));
+    }
+
+    /**
+     * <p>Sets whether the list runs horizontally or vertically. Horizontal by default. The item in
+     * the centre stays there, and the measurements are updated in the next measure pass.</p>
+     *
+     * @param orientation {@link CentreKeylineLayoutManager#HORIZONTAL} or
+     *                    {@link CentreKeylineLayoutManager#VERTICAL}.
+     */
+    public void setOrientation(int orientation) {
+        if (orientation != mLayoutManager.getOrientation()) {
+            mLayoutManager.setOrientation(orientation);
+            mMeasurementsValid = false;
+            requestLayout();
+        }
+    }
+
+    public int getOrientation() {
+        return mLayoutManager.getOrientation();
+    }
+
+    /**
+     * <p>Sets whether the list starts from the right, or the bottom if vertical, rather than the
+     * left or top. D-pad keys still move the list the way they point. Off by default.</p>
+     *
+     * @param reverseLayout {@code true} to lay out from the end of the main axis.
+     */
+    public void setReverseLayout(boolean reverseLayout) {
+        mLayoutManager.setReverseLayout(reverseLayout);
+    }
+
+    public boolean getReverseLayout() {
+        return mLayoutManager.getReverseLayout();
     }
 
     /**
@@ -120,13 +316,14 @@ public abstract class CentreSnapRecyclerView extends RecyclerView {
     /**
      * <p>Overrides {@link RecyclerView#onMeasure(int, int)} not to change the measurement logic,
      * but to calculate/retrieve the width of its children, and update other measurement-aware
-     * components.</p>
+     * components. In a vertical list, the measured height is used in place of the width.</p>
      * {@inheritDoc}
      */
     @Override
     protected void onMeasure(int widthSpec, int heightSpec) {
         super.onMeasure(widthSpec, heightSpec);
-        int measuredWidth = getMeasuredWidth();
+        int measuredWidth = mLayoutManager.getSnapOrientation().isVertical()
+                ? getMeasuredHeight() : getMeasuredWidth();
         if (measuredWidth != mMeasuredWidth) {
             mMeasuredWidth = measuredWidth;
             mMeasurementsValid = false;
@@ -144,41 +341,318 @@ public abstract class CentreSnapRecyclerView extends RecyclerView {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>A layout pass can move the children without scrolling, so the centre is then read from
+     * them again.</p>
+     */
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        boolean recentring = mLayoutManager.getPendingCentrePosition() != NO_POSITION;
+        if (recentring && mKeyNavigationEnabled && hasFocus()) {
+            // The focused child may not survive the jump.
+            parkFocus();
+        }
+        super.onLayout(changed, l, t, r, b);
+        mCentreTracker.onScrolled(0);
+        if (mFocusParked && getScrollState() == SCROLL_STATE_IDLE) {
+            int scrollOffset = getSnapScrollOffset();
+            if (scrollOffset != SnapGeometry.INVALID_OFFSET) {
+                focusCentreChild(getSnapGeometry().getCentrePosition(scrollOffset,
+                        getAdapter().getItemCount()));
+            }
+        }
+    }
+
     /**
      * <p>Responds to a change in measurements, resetting state and updating the
-     * {@link CentreScrollingLinearLayoutManager}.</p>
+     * {@link CentreKeylineLayoutManager}. The current item is re-centred as part of the
+     * layout pass that follows, so it stays in the centre without any visible scroll.</p>
      * <p>This method can be overridden to add more measurement-aware behaviour, but if so the
      * sub-class <i>must</i> call this super-method, else a {@link RuntimeException} will be
      * thrown.</p>
      *
-     * @param newWidth The new measured width of this {@link CentreSnapRecyclerView}.
+     * @param newWidth The new measured width of this {@link CentreSnapRecyclerView}, or its
+     *                 height if vertical.
      */
     protected void onMeasurementsUpdated(int newWidth) {
         mMeasurementsValid = true;
-        int childWidth = getChildWidth();
+        int childWidth;
+        if (mSnapCoordinator != null) {
+            childWidth = mSnapCoordinator.getChildWidth(this, mRailType);
+            mSnapCoordinator.onMeasurementsUpdated(newWidth, childWidth);
+        } else {
+            childWidth = getChildWidth();
+        }
         mLayoutManager.setNewMeasurements(newWidth, childWidth);
+
+        SnapRecyclerAdapter adapter = (SnapRecyclerAdapter) getAdapter();
+        if (adapter != null) {
+            mLayoutManager.setPendingCentrePosition(adapter.getCurrentPosition());
+        }
     }
 
     /**
      * {@inheritDoc}
-     * <p>When a change in layout happens, this {@code RecyclerView} automatically scrolls again to
-     * the current item, to ensure it remains in the centre.</p>
-     * <p><strong>Note:</strong> this means the {@link CentreSnapScrollListener} will detect a
-     * scroll and notify the {@link SnapRecyclerAdapter} accordingly.</p>
+     * <p>Jumps straight to the given {@code position}, centring it, and informs the
+     * {@link SnapRecyclerAdapter} if it is a new selection. Use
+     * {@link #smoothScrollToPosition(int)} to animate to the position instead.</p>
      */
     @Override
-    protected void onLayout(boolean changed, int l, int t, int r, int b) {
-        super.onLayout(changed, l, t, r, b);
-        if (changed) {
-            SnapRecyclerAdapter adapter = (SnapRecyclerAdapter) getAdapter();
-            scrollToPosition(adapter.getCurrentPosition());
+    public void scrollToPosition(int position) {
+        mNavigationController.cancel();
+        super.scrollToPosition(position);
+        SnapRecyclerAdapter adapter = (SnapRecyclerAdapter) getAdapter();
+        if (adapter != null && position != adapter.getCurrentPosition()) {
+            adapter.onItemSelected(position);
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>The scroll starts on the next frame, through the {@link SnapNavigationController}, so
+     * that repeated calls within a frame result in a single scroll to the latest position.</p>
+     */
     @Override
-    public void scrollToPosition(int position) {
-        // Our scrolling algorithm means all scrolls are smooth.
-        smoothScrollToPosition(position);
+    public void smoothScrollToPosition(int position) {
+        mNavigationController.moveTo(position);
+    }
+
+    /**
+     * @see CentreKeylineLayoutManager#getSnapDelta(int)
+     */
+    int getSnapDelta(int position) {
+        return mLayoutManager.getSnapDelta(position);
+    }
+
+    /**
+     * <p>Starts a smooth scroll straight away, bypassing the {@link SnapNavigationController}.</p>
+     */
+    void startSmoothScroll(int position) {
+        startSmoothScroll(position, 0);
+    }
+
+    /**
+     * <p>As {@link #startSmoothScroll(int)}, but in circular mode going the given way round the
+     * loop.</p>
+     *
+     * @param direction {@code 1} towards the end, {@code -1} towards the start, or {@code 0} for
+     *                  the shortest way.
+     */
+    void startSmoothScroll(int position, int direction) {
+        mLayoutManager.setSmoothScrollDirection(direction);
+        super.smoothScrollToPosition(position);
+    }
+
+    /**
+     * @return The {@link SnapNavigationController} that coalesces key presses and smooth scrolls.
+     */
+    public SnapNavigationController getNavigationController() {
+        return mNavigationController;
+    }
+
+    /**
+     * <p>Enables or disables handling of D-pad keys along the main axis by the
+     * {@link SnapNavigationController}, in place of the framework's focus search. While enabled,
+     * focus follows the centre: it moves to the centred child each time the list settles, enters
+     * this view on the centred child, and is held by this view itself rather than lost while the
+     * focused child is recycled. Enabled by default.</p>
+     *
+     * @param enabled {@code true} to handle D-pad navigation.
+     */
+    public void setKeyNavigationEnabled(boolean enabled) {
+        mKeyNavigationEnabled = enabled;
+        if (!enabled) {
+            mNavigationController.cancel();
+            if (mFocusParked) {
+                mFocusParked = false;
+                setDescendantFocusability(mParkedDescendantFocusability);
+            }
+        }
+    }
+
+    public boolean isKeyNavigationEnabled() {
+        return mKeyNavigationEnabled;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>D-pad keys along the main axis are routed to the {@link SnapNavigationController} if
+     * key navigation is enabled. Keys past either end of the list are not, so that focus can
+     * leave it.</p>
+     */
+    @Override
+    public boolean dispatchKeyEvent(KeyEvent event) {
+        if (mKeyNavigationEnabled && mNavigationController.onKeyEvent(event)) {
+            return true;
+        }
+        return super.dispatchKeyEvent(event);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>If key navigation is enabled, focus does not move between children along the main axis
+     * while there is a next item to centre that way, as it follows the centre instead. At either
+     * end of the list, the search is left to the framework, so that focus can leave the list.</p>
+     */
+    @Override
+    public View focusSearch(View focused, int direction) {
+        int itemDirection = mNavigationController.getFocusDirection(direction);
+        if (mKeyNavigationEnabled && itemDirection != 0 && focused != null && focused != this
+                && mNavigationController.canMoveBy(itemDirection)) {
+            return focused;
+        }
+        return super.focusSearch(focused, direction);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>If key navigation is enabled and focus is entering this view, only the centred child
+     * is offered, so focus arriving from another view lands on it.</p>
+     */
+    @Override
+    public void addFocusables(ArrayList<View> views, int direction, int focusableMode) {
+        View centreChild = mKeyNavigationEnabled && !hasFocus() ? findCentreChild() : null;
+        if (centreChild != null) {
+            centreChild.addFocusables(views, direction, focusableMode);
+        } else {
+            super.addFocusables(views, direction, focusableMode);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>If key navigation is enabled, focus given to this view goes to the centred child.</p>
+     */
+    @Override
+    protected boolean onRequestFocusInDescendants(int direction, Rect previouslyFocusedRect) {
+        View centreChild = mKeyNavigationEnabled ? findCentreChild() : null;
+        if (centreChild != null && centreChild.requestFocus(direction, previouslyFocusedRect)) {
+            return true;
+        }
+        return super.onRequestFocusInDescendants(direction, previouslyFocusedRect);
+    }
+
+    @Nullable
+    private View findCentreChild() {
+        int scrollOffset = getSnapScrollOffset();
+        if (scrollOffset == SnapGeometry.INVALID_OFFSET) {
+            return null;
+        }
+        int position = getSnapGeometry().getCentrePosition(scrollOffset,
+                getAdapter().getItemCount());
+        return mLayoutManager.findNearestChild(position);
+    }
+
+    /**
+     * <p>Holds focus on this view itself while the focused child is recycled or the list jumps,
+     * so that the framework does not pass it to whichever view it finds next. Focus goes back to
+     * the centred child once the list settles.</p>
+     */
+    void parkFocus() {
+        if (mFocusParked) {
+            return;
+        }
+        mFocusParked = true;
+        mParkedDescendantFocusability = getDescendantFocusability();
+        setDescendantFocusability(FOCUS_BLOCK_DESCENDANTS);
+        requestFocus();
+    }
+
+    /**
+     * <p>Moves focus to the child at {@code position}, if focus is in this view, or was parked
+     * here, and key navigation is enabled.</p>
+     */
+    void focusCentreChild(int position) {
+        if (mFocusParked) {
+            mFocusParked = false;
+            setDescendantFocusability(mParkedDescendantFocusability);
+        }
+        if (!mKeyNavigationEnabled || !hasFocus()) {
+            return;
+        }
+
+        View child = mLayoutManager.findNearestChild(position);
+        if (child != null && !child.hasFocus()) {
+            child.requestFocus();
+        }
+    }
+
+    /**
+     * <p>Sets the time budget for {@link #smoothScrollToPosition(int)}. However far away the
+     * target is, the scroll will settle within this time. If frames are dropped, the final
+     * centring may run a few frames over, rather than ending in a jump.</p>
+     *
+     * @param maxDuration The maximum duration of a smooth scroll, in milliseconds.
+     */
+    public void setMaxSmoothScrollDuration(int maxDuration) {
+        mLayoutManager.setMaxSmoothScrollDuration(maxDuration);
+    }
+
+    /**
+     * <p>Adds a listener to be told which item passes through the centre as the list scrolls, and
+     * which is centred once it settles. The centre is tracked from scroll deltas rather than by
+     * finding the child under it, and listeners are told at most once a frame.</p>
+     *
+     * @param listener The listener to add.
+     */
+    public void addOnCentreChangedListener(OnCentreChangedListener listener) {
+        mCentreTracker.addListener(listener);
+    }
+
+    /**
+     * @param listener The listener to remove.
+     */
+    public void removeOnCentreChangedListener(OnCentreChangedListener listener) {
+        mCentreTracker.removeListener(listener);
+    }
+
+    /**
+     * <p>Sets whether the list wraps round, with the first item following the last, so that it
+     * can be scrolled endlessly in either direction. The adapter reports its real item count, and
+     * all positions, including the selected one, stay adapter positions. Smooth scrolls take the
+     * shortest way round, and key navigation the way the key points. Off by default.</p>
+     *
+     * @param circular {@code true} for circular mode.
+     */
+    public void setCircular(boolean circular) {
+        mLayoutManager.setCircular(circular);
+    }
+
+    public boolean isCircular() {
+        return mLayoutManager.isCircular();
+    }
+
+    /**
+     * <p>Sets a {@link CentreTransformer} to scale, fade or otherwise transform each child by its
+     * distance from the centre, such as a {@link CentreFocusTransformer}. Only children that have
+     * moved are transformed, and nothing is allocated while scrolling.</p>
+     *
+     * @param centreTransformer The transformer, or {@code null} to leave children as they are.
+     */
+    public void setCentreTransformer(@Nullable CentreTransformer centreTransformer) {
+        mLayoutManager.setCentreTransformer(centreTransformer);
+    }
+
+    /**
+     * <p>Sets how the list animates as it snaps, both when centring the nearest child after a
+     * scroll and when smoothly scrolling to a position. On slower devices, a policy with shorter
+     * animations settles the list in fewer frames.</p>
+     *
+     * @param animationPolicy The policy, or {@link SnapAnimationPolicy#DEFAULT}.
+     */
+    public void setSnapAnimationPolicy(SnapAnimationPolicy animationPolicy) {
+        mLayoutManager.setSnapAnimationPolicy(animationPolicy);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>The listener is called after this {@code CentreSnapRecyclerView} has undone any
+     * {@link CentreTransformer} applied to the recycled child.</p>
+     */
+    @Override
+    public void setRecyclerListener(RecyclerListener listener) {
+        mRecyclerListener = listener;
     }
 
     /**
@@ -191,6 +665,307 @@ public abstract class CentreSnapRecyclerView extends RecyclerView {
             throw new IllegalArgumentException(getClass().getSimpleName() + " must be used with a "
                     + SnapRecyclerAdapter.class.getSimpleName() + " instance.");
         }
+        Adapter oldAdapter = getAdapter();
+        if (oldAdapter != null) {
+            // The new adapter belongs to another rail, until setRailState() says which.
+            saveRailState();
+            mRailId = NO_ID;
+            oldAdapter.unregisterAdapterDataObserver(mChildWidthObserver);
+            ((SnapRecyclerAdapter) oldAdapter).setSnapMetrics(null);
+            ((SnapRecyclerAdapter) oldAdapter).setRecyclerView(null);
+        }
+        adapter.registerAdapterDataObserver(mChildWidthObserver);
+        ((SnapRecyclerAdapter) adapter).setSnapMetrics(mSnapMetrics);
+        ((SnapRecyclerAdapter) adapter).setRecyclerView(this);
         super.setAdapter(adapter);
+        if (mChildWidthProvider != null) {
+            rebuildOffsetIndex();
+        }
+
+        SnapRecyclerAdapter snapAdapter = (SnapRecyclerAdapter) adapter;
+        if (mRestoredPosition != NO_POSITION) {
+            snapAdapter.onItemSelected(mRestoredPosition);
+            mRestoredPosition = NO_POSITION;
+        }
+        mLayoutManager.setPendingCentrePosition(snapAdapter.getCurrentPosition(), mRestoredOffset);
+        mRestoredOffset = 0;
+        if (mViewPreinflationEnabled && getChildCount() == 0) {
+            startViewPreinflation(snapAdapter.getCurrentPosition());
+        }
+    }
+
+    /**
+     * <p>Sets whether the children needed by the first layout after an adapter is set are
+     * created ahead of it, while the main thread is idle, and put in the view pool. The number
+     * of each view type is worked out from the measured width, or the width of the screen before
+     * this view is measured, and {@link #getChildWidth()}, or from heights if vertical. Enabled by
+     * default.</p>
+     *
+     * @param enabled {@code true} to create children ahead of the first layout.
+     */
+    public void setViewPreinflationEnabled(boolean enabled) {
+        mViewPreinflationEnabled = enabled;
+        if (!enabled) {
+            mViewPreinflater.cancel();
+        }
+    }
+
+    /**
+     * <p>Sets an executor on which to create children ahead of the first layout, for the view
+     * types the adapter allows through
+     * {@link SnapRecyclerAdapter#canCreateViewHolderInBackground(int)}. Other view types are
+     * still created while the main thread is idle.</p>
+     *
+     * @param executor The executor, or {@code null} to create every child on the main thread.
+     */
+    public void setViewPreinflationExecutor(@Nullable Executor executor) {
+        mViewPreinflater.setExecutor(executor);
+    }
+
+    private void startViewPreinflation(int centrePosition) {
+        boolean vertical = mLayoutManager.getSnapOrientation().isVertical();
+        int width = vertical ? getMeasuredHeight() : getMeasuredWidth();
+        if (width <= 0) {
+            // Not measured yet, so assume the most this view could show.
+            DisplayMetrics displayMetrics = getResources().getDisplayMetrics();
+            width = vertical ? displayMetrics.heightPixels : displayMetrics.widthPixels;
+        }
+        int childWidth = mSnapCoordinator != null
+                ? mSnapCoordinator.getChildWidth(this, mRailType) : getChildWidth();
+        mViewPreinflater.start(width, childWidth, mLayoutManager.getLayoutMargin(),
+                centrePosition);
+    }
+
+    /**
+     * <p>Keys the scroll state of this rail in a {@link RailStateCache}, for rails that are
+     * recycled inside a vertical list. Call this each time the rail is bound: the state of the
+     * rail it was previously bound as is saved, and any state held for {@code railId} is restored
+     * in the next layout pass, without animating. The state is also saved when this view is
+     * detached from its window, and when a new adapter is set.</p>
+     * <p>If the rail is given a new adapter as it is bound, call {@link #setAdapter(Adapter)}
+     * first, and then this method, so that the new adapter's position is restored rather than
+     * saved under the id of the rail it replaces.</p>
+     *
+     * @param railStateCache The cache to hold the state in, or {@code null} to stop caching it.
+     * @param railId The stable id of the rail this view is now showing.
+     */
+    public void setRailState(@Nullable RailStateCache railStateCache, long railId) {
+        saveRailState();
+        mRailStateCache = railStateCache;
+        mRailId = railId;
+        if (railStateCache != null) {
+            int index = railStateCache.get(railId);
+            if (index >= 0) {
+                restorePosition(railStateCache.getPosition(index),
+                        railStateCache.getOffset(index));
+            }
+        }
+    }
+
+    private void saveRailState() {
+        SnapRecyclerAdapter adapter = (SnapRecyclerAdapter) getAdapter();
+        if (mRailStateCache == null || mRailId == NO_ID || mRailStateSaved || adapter == null
+                || adapter.getItemCount() == 0) {
+            return;
+        }
+
+        int position = mLayoutManager.getPendingCentrePosition();
+        int offset = mLayoutManager.getPendingCentreOffset();
+        int scrollOffset = getSnapScrollOffset();
+        if (position == NO_POSITION && scrollOffset != SnapGeometry.INVALID_OFFSET) {
+            position = getSnapGeometry().getCentrePosition(scrollOffset, adapter.getItemCount());
+            offset = getOffsetFromCentre(position);
+        } else if (position == NO_POSITION) {
+            position = adapter.getCurrentPosition();
+            offset = 0;
+        }
+        mRailStateCache.put(mRailId, position, offset);
+    }
+
+    /**
+     * @return How far this view is scrolled past centring {@code position}, in pixels, or
+     *         {@code 0} if that is not known.
+     */
+    int getOffsetFromCentre(int position) {
+        int scrollOffset = getSnapScrollOffset();
+        if (scrollOffset == SnapGeometry.INVALID_OFFSET) {
+            return 0;
+        }
+        return -getSnapGeometry().getSnapDelta(scrollOffset, position,
+                getAdapter().getItemCount());
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mRailStateSaved = false;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        saveRailState();
+        mRailStateSaved = true;
+        mViewPreinflater.cancel();
+        super.onDetachedFromWindow();
+    }
+
+    /**
+     * <p>Informs the {@link SnapRecyclerAdapter} of a restored position, and centres it in the
+     * next layout pass. If no adapter has been set yet, this happens once one is.</p>
+     */
+    private void restorePosition(int position, int offset) {
+        SnapRecyclerAdapter adapter = (SnapRecyclerAdapter) getAdapter();
+        if (adapter == null) {
+            mRestoredPosition = position;
+            mRestoredOffset = offset;
+            return;
+        }
+        if (position >= adapter.getItemCount()) {
+            return;
+        }
+
+        if (position != adapter.getCurrentPosition()) {
+            adapter.onItemSelected(position);
+        }
+        mLayoutManager.setPendingCentrePosition(position, offset);
+        requestLayout();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>Saves the current position of the {@link SnapRecyclerAdapter}, so that it can be centred
+     * again in the first layout pass after the state is restored.</p>
+     */
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState state = new SavedState(super.onSaveInstanceState());
+        SnapRecyclerAdapter adapter = (SnapRecyclerAdapter) getAdapter();
+        state.mCurrentPosition = adapter != null ? adapter.getCurrentPosition() : NO_POSITION;
+        return state;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>Restores the current position of the {@link SnapRecyclerAdapter}, informing it of the
+     * selection, and centres that position in the next layout pass. If no adapter has been set
+     * yet, this happens once one is.</p>
+     */
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+
+        SavedState savedState = (SavedState) state;
+        super.onRestoreInstanceState(savedState.mRecyclerViewState);
+        if (savedState.mCurrentPosition != NO_POSITION) {
+            restorePosition(savedState.mCurrentPosition, 0);
+        }
+    }
+
+    /**
+     * <p>Undoes the {@link CentreTransformer} of each recycled child, as the view pool may give it
+     * to another list, and drops it from the adapter's placeholders, before passing it on to any
+     * {@link RecyclerListener} that was set.</p>
+     */
+    private class ChildRecycler implements RecyclerListener {
+        @Override
+        public void onViewRecycled(ViewHolder holder) {
+            mLayoutManager.onChildRecycled(holder.itemView);
+            Adapter adapter = getAdapter();
+            if (adapter != null) {
+                ((SnapRecyclerAdapter) adapter).onHolderRecycled(holder);
+            }
+            if (mRecyclerListener != null) {
+                mRecyclerListener.onViewRecycled(holder);
+            }
+        }
+    }
+
+    /**
+     * <p>Keeps the {@link OffsetIndex} in step with the adapter. Changed items are updated in
+     * place, while structural changes rebuild the index only from the first position they
+     * shift.</p>
+     */
+    private class ChildWidthObserver extends AdapterDataObserver {
+        @Override
+        public void onChanged() {
+            if (mChildWidthProvider != null) {
+                rebuildOffsetIndex();
+            }
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            if (mChildWidthProvider != null) {
+                for (int i = positionStart; i < positionStart + itemCount; i++) {
+                    mOffsetIndex.setWidth(i, mChildWidthProvider.getChildWidth(i));
+                }
+            }
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            onItemsShifted(positionStart);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            onItemsShifted(positionStart);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            onItemsShifted(Math.min(fromPosition, toPosition));
+        }
+
+        private void onItemsShifted(int positionStart) {
+            if (mChildWidthProvider != null) {
+                rebuildOffsetIndex(positionStart);
+            }
+        }
+    }
+
+    /**
+     * <p>Saved state of a {@link CentreSnapRecyclerView}, holding the current position alongside
+     * the state of the {@link RecyclerView} itself.</p>
+     * <p>The {@code RecyclerView} state is held in its own field, rather than as the super state,
+     * as {@link BaseSavedState} cannot read super states from outside the framework before API
+     * 24.</p>
+     */
+    static class SavedState extends BaseSavedState {
+        Parcelable mRecyclerViewState;
+        int mCurrentPosition;
+
+        SavedState(Parcelable recyclerViewState) {
+            super(EMPTY_STATE);
+            mRecyclerViewState = recyclerViewState;
+        }
+
+        SavedState(Parcel in) {
+            super(in);
+            mRecyclerViewState = in.readParcelable(RecyclerView.class.getClassLoader());
+            mCurrentPosition = in.readInt();
+        }
+
+        @Override
+        public void writeToParcel(Parcel dest, int flags) {
+            super.writeToParcel(dest, flags);
+            dest.writeParcelable(mRecyclerViewState, flags);
+            dest.writeInt(mCurrentPosition);
+        }
+
+        public static final Creator<SavedState> CREATOR = new Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
     }
 }
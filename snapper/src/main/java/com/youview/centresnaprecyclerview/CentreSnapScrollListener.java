@@ -23,17 +23,135 @@
 
 package com.youview.centresnaprecyclerview;
 
+import android.os.SystemClock;
+import android.support.annotation.Nullable;
 import android.support.v7.widget.RecyclerView;
-import android.view.View;
 
 /**
  * <p>Implementation of a {@link RecyclerView.OnScrollListener} that snaps the central item in the
  * {@link RecyclerView} to the centre of the view once the scroll has completed.</p>
+ *
+ * <p>It also tracks the scroll velocity, telling the {@link SnapRecyclerAdapter} when the list is
+ * scrolling too fast for its items to be seen, so that it can bind placeholders.</p>
+ *
+ * <p>If a {@link PreloadListener} is set, it predicts from the scroll velocity which items will
+ * be on screen when the scroll comes to rest, and keeps the listener up to date with them.</p>
+ *
+ * <p>It keeps the view's {@link OnCentreChangedListener}s up to date with the item passing
+ * through the centre as the list scrolls, and the item centred once it settles.</p>
+ *
+ * <p>If the {@link CentreSnapRecyclerView} has {@link SnapMetrics}, it reports the start, frames,
+ * corrective scrolls and end of each snap to them.</p>
  */
 public class CentreSnapScrollListener extends RecyclerView.OnScrollListener {
-    private static final int SNAP_THRESHOLD_PIXELS = 1;
+    /**
+     * The default speed, in items per second, above which the list is considered to be scrolling
+     * fast.
+     */
+    public static final float DEFAULT_FAST_SCROLL_THRESHOLD = 8f;
+
+    // Gaps between scroll events longer than this are a new scroll, not a slow one.
+    private static final long MAX_SCROLL_EVENT_GAP_MILLIS = 100;
 
     private int mPreviousScrollState = Integer.MIN_VALUE;
+    private int mCorrectivePosition = RecyclerView.NO_POSITION;
+    private FlingPredictor mFlingPredictor;
+
+    private float mFastScrollThreshold = DEFAULT_FAST_SCROLL_THRESHOLD;
+    private long mLastScrolledTime;
+    private boolean mFastScrolling;
+
+    private PreloadListener mPreloadListener;
+    private FlingPredictor mPreloadPredictor;
+    private int mPreloadFirst = RecyclerView.NO_POSITION;
+    private int mPreloadLast = RecyclerView.NO_POSITION;
+
+    /**
+     * <p>Sets the speed above which the list is considered to be scrolling fast, and the
+     * {@link SnapRecyclerAdapter} may bind placeholders. The list is considered to have slowed
+     * down once its speed drops below half of this.</p>
+     *
+     * @param itemsPerSecond The threshold speed, in items per second.
+     * @see SnapRecyclerAdapter#setFastScrolling(boolean)
+     */
+    public void setFastScrollThreshold(float itemsPerSecond) {
+        mFastScrollThreshold = itemsPerSecond;
+    }
+
+    /**
+     * <p>Enables or disables predictive flings. When enabled, each fling is retargeted as it
+     * starts so that it comes to rest with an item exactly centred, rather than needing a second,
+     * corrective scroll once it has finished.</p>
+     *
+     * @param flingPredictor The {@link FlingPredictor} describing the fling physics of the
+     *                       {@link RecyclerView}, or {@code null} to disable predictive flings.
+     */
+    public void setFlingPredictor(@Nullable FlingPredictor flingPredictor) {
+        mFlingPredictor = flingPredictor;
+    }
+
+    /**
+     * <p>Sets the {@link PreloadListener} to tell of the items predicted to be on screen when each
+     * scroll comes to rest.</p>
+     *
+     * @param preloadListener The listener, or {@code null} to stop predicting.
+     * @param flingPredictor The {@link FlingPredictor} describing the fling physics of the
+     *                       {@link RecyclerView}, used to predict where scrolls come to rest.
+     */
+    public void setPreloadListener(@Nullable PreloadListener preloadListener,
+                                   FlingPredictor flingPredictor) {
+        mPreloadListener = preloadListener;
+        mPreloadPredictor = flingPredictor;
+        mPreloadFirst = RecyclerView.NO_POSITION;
+        mPreloadLast = RecyclerView.NO_POSITION;
+    }
+
+    /**
+     * <p>Called as a fling starts, allowing its velocity to be adjusted. If predictive flings are
+     * enabled, predicts the item closest to the centre where the fling would come to rest, and
+     * returns the velocity that brings that item exactly to the centre.</p>
+     *
+     * @param recyclerView The {@link RecyclerView} about to fling.
+     * @param velocity The requested velocity along the main axis, in pixels per second, positive
+     *                 towards the end of the list.
+     * @return The velocity along the main axis to fling with.
+     */
+    protected int onFling(RecyclerView recyclerView, int velocity) {
+        velocity = retargetFling(recyclerView, velocity);
+        updatePreloadRange(recyclerView, velocity);
+        return velocity;
+    }
+
+    private int retargetFling(RecyclerView recyclerView, int velocity) {
+        if (mFlingPredictor == null || velocity == 0) {
+            return velocity;
+        }
+
+        CentreSnapRecyclerView snapView = (CentreSnapRecyclerView) recyclerView;
+        int scrollOffset = snapView.getSnapScrollOffset();
+        if (scrollOffset == SnapGeometry.INVALID_OFFSET) {
+            return velocity;
+        }
+
+        SnapGeometry geometry = snapView.getSnapGeometry();
+        int itemCount = recyclerView.getAdapter().getItemCount();
+        int landingOffset = scrollOffset + mFlingPredictor.getFlingDistance(velocity);
+        int landingPosition = geometry.getCentrePosition(landingOffset, itemCount);
+        // Measured from the landing offset, so that in circular mode a fling may go round the
+        // loop more than once.
+        int distance = landingOffset - scrollOffset
+                + geometry.getSnapDelta(landingOffset, landingPosition, itemCount);
+
+        // If the nearest centre lies just beyond the fastest possible fling, settle one item
+        // short of it instead.
+        if (Math.abs(distance) > mFlingPredictor.getMaxFlingDistance()) {
+            landingPosition = geometry.wrapPosition(landingPosition - Integer.signum(distance),
+                    itemCount);
+            distance = landingOffset - scrollOffset
+                    + geometry.getSnapDelta(landingOffset, landingPosition, itemCount);
+        }
+        return mFlingPredictor.getFlingVelocity(distance);
+    }
 
     /**
      * {@inheritDoc}
@@ -43,7 +161,23 @@ public class CentreSnapScrollListener extends RecyclerView.OnScrollListener {
      */
     @Override
     public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+        SnapMetrics metrics = ((CentreSnapRecyclerView) recyclerView).mSnapMetrics;
+        if (metrics != null) {
+            if (newState == RecyclerView.SCROLL_STATE_DRAGGING) {
+                metrics.onSnapCancelled();
+            } else if (!metrics.isActive()) {
+                // Released by the user, or a programmatic scroll has started.
+                metrics.onSnapStarted();
+            }
+        }
+
+        if (newState == RecyclerView.SCROLL_STATE_DRAGGING) {
+            // The user has taken over from any corrective scroll.
+            mCorrectivePosition = RecyclerView.NO_POSITION;
+        }
+
         if (newState == RecyclerView.SCROLL_STATE_IDLE && newState != mPreviousScrollState) {
+            setFastScrolling(recyclerView, false);
             onScrollCompleted(recyclerView);
         } else {
             super.onScrollStateChanged(recyclerView, newState);
@@ -52,31 +186,179 @@ public class CentreSnapScrollListener extends RecyclerView.OnScrollListener {
         mPreviousScrollState = newState;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>Estimates the scroll speed from the time between successive scroll events, and updates
+     * the fast-scrolling state of the {@link SnapRecyclerAdapter}. Only the part of the scroll
+     * along the main axis of the list is considered.</p>
+     */
+    @Override
+    public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+        CentreSnapRecyclerView snapView = (CentreSnapRecyclerView) recyclerView;
+        int delta = snapView.mLayoutManager.getSnapOrientation().getDelta(dx, dy);
+        snapView.mCentreTracker.onScrolled(delta);
+        if (delta == 0) {
+            // Layout passes report a scroll of zero, which says nothing about speed.
+            return;
+        }
+
+        SnapMetrics metrics = snapView.mSnapMetrics;
+        if (metrics != null) {
+            metrics.onFrame();
+        }
+
+        long now = SystemClock.uptimeMillis();
+        long elapsed = now - mLastScrolledTime;
+        mLastScrolledTime = now;
+        int childWidth = snapView.getSnapGeometry().getChildWidth();
+        if (elapsed <= 0 || elapsed > MAX_SCROLL_EVENT_GAP_MILLIS || childWidth <= 0) {
+            return;
+        }
+
+        updatePreloadRange(recyclerView, (int) (delta * 1000L / elapsed));
+
+        float itemsPerSecond = Math.abs(delta) * 1000f / (elapsed * childWidth);
+        if (mFastScrolling) {
+            setFastScrolling(recyclerView, itemsPerSecond >= mFastScrollThreshold / 2);
+        } else {
+            setFastScrolling(recyclerView, itemsPerSecond > mFastScrollThreshold);
+        }
+    }
+
+    /**
+     * <p>Predicts the items on screen once a scroll at {@code velocity} comes to rest, and tells
+     * the {@link PreloadListener} how that differs from the last prediction.</p>
+     */
+    private void updatePreloadRange(RecyclerView recyclerView, int velocity) {
+        if (mPreloadListener == null) {
+            return;
+        }
+
+        CentreSnapRecyclerView snapView = (CentreSnapRecyclerView) recyclerView;
+        int scrollOffset = snapView.getSnapScrollOffset();
+        int itemCount = recyclerView.getAdapter().getItemCount();
+        if (scrollOffset == SnapGeometry.INVALID_OFFSET || itemCount == 0) {
+            return;
+        }
+
+        SnapGeometry geometry = snapView.getSnapGeometry();
+        int landingOffset = scrollOffset + mPreloadPredictor.getFlingDistance(velocity);
+        int landingPosition = geometry.getCentrePosition(landingOffset, itemCount);
+        int halfVisible = geometry.getWidth() / (2 * geometry.getChildWidth()) + 1;
+        int first = Math.max(0, landingPosition - halfVisible);
+        int last = Math.min(itemCount - 1, landingPosition + halfVisible);
+        if (first == mPreloadFirst && last == mPreloadLast) {
+            return;
+        }
+
+        int oldFirst = mPreloadFirst;
+        int oldLast = mPreloadLast;
+        mPreloadFirst = first;
+        mPreloadLast = last;
+        if (oldFirst == RecyclerView.NO_POSITION || oldLast < first || oldFirst > last) {
+            // No overlap with the last prediction.
+            if (oldFirst != RecyclerView.NO_POSITION) {
+                mPreloadListener.onCancelPreload(oldFirst, oldLast);
+            }
+            mPreloadListener.onPreload(first, last);
+            return;
+        }
+
+        if (oldFirst < first) {
+            mPreloadListener.onCancelPreload(oldFirst, first - 1);
+        }
+        if (oldLast > last) {
+            mPreloadListener.onCancelPreload(last + 1, oldLast);
+        }
+        if (first < oldFirst) {
+            mPreloadListener.onPreload(first, oldFirst - 1);
+        }
+        if (last > oldLast) {
+            mPreloadListener.onPreload(oldLast + 1, last);
+        }
+    }
+
+    private void setFastScrolling(RecyclerView recyclerView, boolean fastScrolling) {
+        if (fastScrolling != mFastScrolling) {
+            mFastScrolling = fastScrolling;
+            ((SnapRecyclerAdapter) recyclerView.getAdapter()).setFastScrolling(fastScrolling);
+        }
+    }
+
     /**
      * <p>Calculates the delta between the centre of the {@link RecyclerView} and the centre child
-     * view, and scrolls by that amount to centre the child</p>
+     * view, and animates by that amount to centre the child, as set by the view's
+     * {@link SnapAnimationPolicy}.</p>
+     * <p>The delta is taken from the laid out child, so one corrective animation always centres
+     * it exactly. When that animation ends, the child is not selected again, and anything left
+     * over, such as where the animation was stopped early, is scrolled by instantly.</p>
+     * <p>The centre child is resolved arithmetically by the view's {@link SnapGeometry}, from the
+     * scroll offset given by {@link CentreSnapRecyclerView#getSnapScrollOffset()}, so no
+     * hit-testing is needed and a centre that falls between children still resolves to the
+     * nearest one.</p>
      *
      * @param recyclerView The {@link RecyclerView} that has completed its scroll.
      */
     protected void onScrollCompleted(RecyclerView recyclerView) {
-        int centreX = recyclerView.getWidth() / 2;
-        int centreY = recyclerView.getHeight() / 2;
-        View centreChild = recyclerView.findChildViewUnder(centreX, centreY);
+        CentreSnapRecyclerView snapView = (CentreSnapRecyclerView) recyclerView;
+        if (snapView.getNavigationController().isNavigating()) {
+            // Navigation will move on again, so this is not where the list settles.
+            return;
+        }
+
+        int scrollOffset = snapView.getSnapScrollOffset();
+        if (scrollOffset == SnapGeometry.INVALID_OFFSET) {
+            return;
+        }
+
+        SnapMetrics metrics = snapView.mSnapMetrics;
+        if (metrics != null) {
+            metrics.onSettleIteration();
+        }
 
         SnapRecyclerAdapter adapter = (SnapRecyclerAdapter) recyclerView.getAdapter();
-        int childPosition = recyclerView.getChildLayoutPosition(centreChild);
-        adapter.onItemSelected(childPosition);
+        int childPosition = snapView.getSnapGeometry().getCentrePosition(scrollOffset,
+                adapter.getItemCount());
+        if (childPosition == SnapGeometry.NO_POSITION) {
+            return;
+        }
 
-        int left = centreChild.getLeft();
-        int right = centreChild.getRight();
-        int leftFromCentre = centreX - left;
-        int rightFromCentre = right - centreX;
-        int delta = (rightFromCentre - leftFromCentre) / 2;
+        // Anything else, such as navigation, may have moved the list on since the corrective
+        // scroll started.
+        boolean corrected = childPosition == mCorrectivePosition;
+        mCorrectivePosition = RecyclerView.NO_POSITION;
+        if (!corrected) {
+            adapter.onItemSelected(childPosition);
+        }
+
+        int delta = snapView.getSnapDelta(childPosition);
+        SnapCoordinator coordinator = snapView.mSnapCoordinator;
+        if (delta != 0 && !corrected
+                && (coordinator == null || !coordinator.isInterrupting(snapView))) {
+            if (metrics != null) {
+                metrics.onCorrectiveScroll();
+            }
+            mCorrectivePosition = childPosition;
+            if (coordinator != null) {
+                coordinator.snap(snapView, childPosition);
+            } else {
+                snapView.startSmoothScroll(childPosition);
+            }
+            return;
+        }
 
-        // Avoid infinite scrolls where the parity of the screen width and the view width are
-        // different.
-        if (Math.abs(delta) > SNAP_THRESHOLD_PIXELS) {
-            recyclerView.smoothScrollBy(delta, 0);
+        if (delta != 0) {
+            // Does not change the scroll state, so the list stays idle.
+            SnapOrientation orientation = snapView.mLayoutManager.getSnapOrientation();
+            recyclerView.scrollBy(orientation.getDx(delta), orientation.getDy(delta));
+        }
+        if (metrics != null) {
+            metrics.onSnapSettled();
+        }
+        if (coordinator != null) {
+            coordinator.onSnapSettled(snapView);
         }
+        snapView.mCentreTracker.onSettled(childPosition);
+        snapView.focusCentreChild(childPosition);
     }
 }
@@ -0,0 +1,124 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.centresnaprecyclerview;
+
+import android.support.v4.view.ViewCompat;
+import android.support.v7.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Keeps track of the position under the centre keyline of a {@link CentreSnapRecyclerView} as
+ * it scrolls, and tells its {@link OnCentreChangedListener}s.</p>
+ *
+ * <p>The scroll offset is read from the attached children only after a layout pass. Between
+ * layouts, it is moved on by the delta of each scroll, and the centre position is worked out
+ * from it by the {@link SnapGeometry}, so no children are inspected. Changes are dispatched on the
+ * next animation frame, so a frame with several scrolls dispatches once. Nothing is
+ * allocated.</p>
+ */
+final class CentreTracker implements Runnable {
+    private final CentreSnapRecyclerView mRecyclerView;
+    private final List<OnCentreChangedListener> mListeners = new ArrayList<>();
+
+    private int mScrollOffset = SnapGeometry.INVALID_OFFSET;
+    private int mCentrePosition = RecyclerView.NO_POSITION;
+    private int mDispatchedPosition = RecyclerView.NO_POSITION;
+    private boolean mDispatchPending;
+
+    CentreTracker(CentreSnapRecyclerView recyclerView) {
+        mRecyclerView = recyclerView;
+    }
+
+    void addListener(OnCentreChangedListener listener) {
+        if (!mListeners.contains(listener)) {
+            mListeners.add(listener);
+        }
+    }
+
+    void removeListener(OnCentreChangedListener listener) {
+        mListeners.remove(listener);
+    }
+
+    /**
+     * <p>Moves the tracked scroll offset on by {@code delta}, along the main axis. A
+     * {@code delta} of {@code 0}, as reported after a layout pass, reads the scroll offset from
+     * the children again instead.</p>
+     */
+    void onScrolled(int delta) {
+        if (mListeners.isEmpty()) {
+            mScrollOffset = SnapGeometry.INVALID_OFFSET;
+            return;
+        }
+
+        RecyclerView.Adapter adapter = mRecyclerView.getAdapter();
+        if (adapter == null) {
+            return;
+        }
+
+        if (delta == 0 || mScrollOffset == SnapGeometry.INVALID_OFFSET) {
+            mScrollOffset = mRecyclerView.getSnapScrollOffset();
+        } else {
+            // Kept within one loop in circular mode, however far the list is scrolled.
+            mScrollOffset = mRecyclerView.getSnapGeometry().normaliseScrollOffset(
+                    mScrollOffset + delta, adapter.getItemCount());
+        }
+        if (mScrollOffset == SnapGeometry.INVALID_OFFSET) {
+            return;
+        }
+
+        mCentrePosition = mRecyclerView.getSnapGeometry().getCentrePosition(mScrollOffset,
+                adapter.getItemCount());
+        if (mCentrePosition != mDispatchedPosition && !mDispatchPending) {
+            mDispatchPending = true;
+            ViewCompat.postOnAnimation(mRecyclerView, this);
+        }
+    }
+
+    /**
+     * <p>Dispatches the latest centre position, if it has changed since the last dispatch.</p>
+     */
+    @Override
+    public void run() {
+        mDispatchPending = false;
+        int position = mCentrePosition;
+        if (position == mDispatchedPosition || position == RecyclerView.NO_POSITION) {
+            return;
+        }
+
+        mDispatchedPosition = position;
+        for (int i = mListeners.size() - 1; i >= 0; i--) {
+            mListeners.get(i).onCentrePassing(position);
+        }
+    }
+
+    void onSettled(int position) {
+        mCentrePosition = position;
+        mDispatchedPosition = position;
+        for (int i = mListeners.size() - 1; i >= 0; i--) {
+            mListeners.get(i).onCentreSettled(position);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.centresnaprecyclerview;
+
+import android.view.View;
+
+/**
+ * <p>Transforms each child of a {@link CentreSnapRecyclerView} by its distance from the centre
+ * keyline, for instance to scale up and fade in the centre item.</p>
+ *
+ * <p>The distance is worked out once for each child each frame, without allocating, and a child
+ * is only passed to {@link #transformChild(View, float)} when its distance has changed. Setting
+ * properties such as scale, alpha and elevation does not redraw the child, so a transform costs
+ * little more than the properties it sets.</p>
+ *
+ * @see CentreSnapRecyclerView#setCentreTransformer(CentreTransformer)
+ */
+public interface CentreTransformer {
+    /**
+     * @return The distance, in children, beyond which every child looks the same. Distances are
+     *         clamped to this, so children further away are not transformed again as they move.
+     */
+    float getMaxDistance();
+
+    /**
+     * <p>Applies the transform for {@code distance} to {@code child}. Called on the UI thread, in
+     * the middle of layout or scrolling, so must not allocate or change the layout.</p>
+     *
+     * @param child The child to transform.
+     * @param distance The distance of the centre of the child from the centre keyline, in
+     *                 children, from {@code -getMaxDistance()} to {@code getMaxDistance()}.
+     *                 Negative before the keyline, and {@code 0} when centred.
+     */
+    void transformChild(View child, float distance);
+}
@@ -0,0 +1,130 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.centresnaprecyclerview;
+
+/**
+ * <p>Predicts how far a {@code RecyclerView} fling will travel, and the inverse: the velocity
+ * needed for a fling to travel a given distance.</p>
+ *
+ * <p>{@code RecyclerView} flings with an {@code OverScroller}, which decelerates along a spline
+ * determined by the screen density and scroll friction. The calculations here mirror that spline,
+ * including its use of {@code float} arithmetic and truncation of the final distance, so that a
+ * fling started with {@link #getFlingVelocity(int)} stops on the requested pixel.</p>
+ */
+public final class FlingPredictor {
+    // Constants as used by android.widget.OverScroller.
+    private static final float GRAVITY_EARTH = 9.80665f;
+    private static final float INCHES_PER_METER = 39.37f;
+    private static final float PHYSICAL_FRICTION = 0.84f;
+    private static final float DECELERATION_RATE = (float) (Math.log(0.78) / Math.log(0.9));
+    private static final float INFLEXION = 0.35f;
+
+    // The number of velocities either side of the ideal one to try when looking for an exact fit.
+    private static final int VELOCITY_SEARCH_RADIUS = 2;
+
+    private final float mFrictionCoefficient;
+    private final int mMaxVelocity;
+    private final int mMaxDistance;
+
+    /**
+     * @param density The display density, as given by {@code DisplayMetrics#density}.
+     * @param friction The scroll friction, as given by
+     *                 {@code ViewConfiguration#getScrollFriction()}.
+     * @param maxVelocity The maximum fling velocity of the {@code RecyclerView}, in pixels per
+     *                    second.
+     */
+    public FlingPredictor(float density, float friction, int maxVelocity) {
+        float ppi = density * 160.0f;
+        float physicalCoefficient = GRAVITY_EARTH * INCHES_PER_METER * ppi * PHYSICAL_FRICTION;
+        mFrictionCoefficient = friction * physicalCoefficient;
+        mMaxVelocity = maxVelocity;
+        mMaxDistance = getFlingDistance(maxVelocity);
+    }
+
+    /**
+     * <p>Predicts the distance a fling will travel before coming to rest.</p>
+     *
+     * @param velocity The fling velocity, in pixels per second. This is clamped to the maximum
+     *                 velocity, as {@code RecyclerView} would do.
+     * @return The signed distance the fling will travel, in pixels.
+     */
+    public int getFlingDistance(int velocity) {
+        if (velocity == 0) {
+            return 0;
+        }
+
+        int speed = Math.min(Math.abs(velocity), mMaxVelocity);
+        double deceleration = Math.log(INFLEXION * speed / mFrictionCoefficient);
+        double decelerationMinusOne = DECELERATION_RATE - 1.0;
+        double distance = mFrictionCoefficient
+                * Math.exp(DECELERATION_RATE / decelerationMinusOne * deceleration);
+        int truncated = (int) distance;
+        return velocity > 0 ? truncated : -truncated;
+    }
+
+    /**
+     * <p>Calculates the fling velocity that travels as close as possible to {@code distance}.</p>
+     *
+     * @param distance The signed distance to travel, in pixels. This should not exceed
+     *                 {@link #getMaxFlingDistance()}.
+     * @return The signed velocity, in pixels per second.
+     */
+    public int getFlingVelocity(int distance) {
+        if (distance == 0) {
+            return 0;
+        }
+
+        int target = Math.abs(distance);
+        double decelerationMinusOne = DECELERATION_RATE - 1.0;
+        double deceleration = Math.log(target / mFrictionCoefficient)
+                * decelerationMinusOne / DECELERATION_RATE;
+        int ideal = (int) Math.round(Math.exp(deceleration) * mFrictionCoefficient / INFLEXION);
+
+        // Rounding to a whole velocity can move the end of the fling by a pixel or so, so settle
+        // on whichever nearby velocity lands closest.
+        int bestVelocity = ideal;
+        int bestError = Integer.MAX_VALUE;
+        for (int velocity = ideal - VELOCITY_SEARCH_RADIUS;
+                velocity <= ideal + VELOCITY_SEARCH_RADIUS; velocity++) {
+            if (velocity <= 0 || velocity > mMaxVelocity) {
+                continue;
+            }
+            int error = Math.abs(getFlingDistance(velocity) - target);
+            if (error < bestError) {
+                bestError = error;
+                bestVelocity = velocity;
+            }
+        }
+
+        bestVelocity = Math.min(bestVelocity, mMaxVelocity);
+        return distance > 0 ? bestVelocity : -bestVelocity;
+    }
+
+    /**
+     * @return The distance travelled by a fling at the maximum velocity.
+     */
+    public int getMaxFlingDistance() {
+        return mMaxDistance;
+    }
+}
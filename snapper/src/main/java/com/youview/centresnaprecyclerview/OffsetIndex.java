@@ -0,0 +1,168 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.centresnaprecyclerview;
+
+import java.util.Arrays;
+
+/**
+ * <p>Prefix sums of child widths, held in a Fenwick tree so that both the offset of a position and
+ * the position at an offset can be found in {@code O(log n)} time, and the width of a single child
+ * can be changed in {@code O(log n)} time.</p>
+ *
+ * <p>Offsets are measured from the start of the first child, so exclude any edge padding.</p>
+ */
+public final class OffsetIndex {
+    // One-based Fenwick tree: mTree[i] holds the sum of the widths of the (i & -i) positions
+    // ending at position i - 1.
+    private int[] mTree = new int[1];
+    private int mSize;
+    private int mTopBit;
+
+    /**
+     * <p>Builds the index from scratch in {@code O(n)} time.</p>
+     *
+     * @param provider The source of child widths.
+     * @param size The number of children.
+     */
+    public void build(ChildWidthProvider provider, int size) {
+        rebuildFrom(provider, 0, size);
+    }
+
+    /**
+     * <p>Rebuilds the index from {@code position} onwards, keeping the widths before it, as is
+     * needed when positions are inserted or removed at {@code position}, or moved no further back
+     * than it. This takes {@code O(size - position + log n)} time, so appending to a long list
+     * costs little more than the items appended.</p>
+     *
+     * @param provider The source of child widths.
+     * @param position The first position whose width may have changed.
+     * @param size The new number of children.
+     */
+    public void rebuildFrom(ChildWidthProvider provider, int position, int size) {
+        int start = Math.max(0, Math.min(position, Math.min(mSize, size)));
+        if (mTree.length < size + 1) {
+            mTree = Arrays.copyOf(mTree, size + 1);
+        }
+        Arrays.fill(mTree, start + 1, size + 1, 0);
+        mSize = size;
+        mTopBit = Integer.highestOneBit(size);
+
+        // The kept nodes whose parents are rebuilt are those on the path summing the offset of
+        // start, so add each of them to its parent, as the loop below does for the rest.
+        for (int i = start; i > 0; i -= i & -i) {
+            int parent = i + (i & -i);
+            if (parent <= size) {
+                mTree[parent] += mTree[i];
+            }
+        }
+        for (int i = start + 1; i <= size; i++) {
+            mTree[i] += provider.getChildWidth(i - 1);
+            int parent = i + (i & -i);
+            if (parent <= size) {
+                mTree[parent] += mTree[i];
+            }
+        }
+    }
+
+    /**
+     * @return The number of children in the index.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * <p>Updates the width of a single child.</p>
+     *
+     * @param position The position of the child.
+     * @param width The new width of the child.
+     */
+    public void setWidth(int position, int width) {
+        if (position < 0 || position >= mSize) {
+            return;
+        }
+
+        int delta = width - getWidth(position);
+        for (int i = position + 1; i <= mSize; i += i & -i) {
+            mTree[i] += delta;
+        }
+    }
+
+    /**
+     * @param position The position of the child.
+     * @return The width of the child at {@code position}, or {@code 0} if it is out of range.
+     */
+    public int getWidth(int position) {
+        if (position < 0 || position >= mSize) {
+            return 0;
+        }
+        return getOffset(position + 1) - getOffset(position);
+    }
+
+    /**
+     * @param position The position of the child. Positions beyond the end of the index are
+     *                 treated as the end.
+     * @return The total width of all children before {@code position}.
+     */
+    public int getOffset(int position) {
+        int sum = 0;
+        for (int i = Math.min(position, mSize); i > 0; i -= i & -i) {
+            sum += mTree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * @return The total width of all children.
+     */
+    public int getTotalWidth() {
+        return getOffset(mSize);
+    }
+
+    /**
+     * <p>Finds the child spanning {@code offset}. Offsets before the first child or after the last
+     * are clamped to those children.</p>
+     *
+     * @param offset The offset from the start of the first child.
+     * @return The position of the child spanning {@code offset}, or
+     *         {@link SnapGeometry#NO_POSITION} if the index is empty.
+     */
+    public int getPosition(int offset) {
+        if (mSize == 0) {
+            return SnapGeometry.NO_POSITION;
+        }
+
+        // Descend the tree to find the number of children that end at or before the offset.
+        int position = 0;
+        int remaining = offset;
+        for (int bit = mTopBit; bit != 0; bit >>= 1) {
+            int next = position + bit;
+            if (next <= mSize && mTree[next] <= remaining) {
+                position = next;
+                remaining -= mTree[next];
+            }
+        }
+        return position < mSize ? position : mSize - 1;
+    }
+}
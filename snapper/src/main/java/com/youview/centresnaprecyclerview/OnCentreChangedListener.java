@@ -0,0 +1,47 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.centresnaprecyclerview;
+
+/**
+ * <p>Told which item of a {@link CentreSnapRecyclerView} is under the centre keyline, both while
+ * the list moves and once it settles. Called on the UI thread.</p>
+ *
+ * @see CentreSnapRecyclerView#addOnCentreChangedListener(OnCentreChangedListener)
+ */
+public interface OnCentreChangedListener {
+    /**
+     * <p>Called when a new item passes under the centre while the list scrolls. Called at most
+     * once a frame, with the latest item, so items passed within a single frame are skipped.</p>
+     *
+     * @param position The adapter position now under the centre.
+     */
+    void onCentrePassing(int position);
+
+    /**
+     * <p>Called when the list comes to rest with an item centred.</p>
+     *
+     * @param position The adapter position of the centred item.
+     */
+    void onCentreSettled(int position);
+}
@@ -0,0 +1,313 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.centresnaprecyclerview;
+
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.Nullable;
+import android.support.v7.widget.RecyclerView;
+import android.util.SparseArray;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * <p>{@link SnapRecyclerAdapter} for very long lists, whose items are loaded a page at a time by a
+ * {@link PageLoader} on a background executor, as they are needed.</p>
+ *
+ * <p>Binding an item whose page has not been loaded binds a placeholder through
+ * {@link #onBindMissingItem(RecyclerView.ViewHolder, int)}, and requests the page. Once it
+ * arrives, its items are bound again through
+ * {@link #onBindItem(RecyclerView.ViewHolder, int, Object)}. As items are bound, the page a little
+ * further on in the direction of the scroll is prefetched.</p>
+ *
+ * <p>At most {@code maxPages} pages are held. Beyond that, the pages furthest from the items
+ * being bound are dropped, so memory use depends on the page size rather than the length of the
+ * list. {@code maxPages} should cover a few more items than are visible at once.</p>
+ *
+ * @param <T> The type of the items.
+ */
+public abstract class PagedSnapAdapter<T> extends SnapRecyclerAdapter {
+    public static final int DEFAULT_MAX_PAGES = 5;
+
+    /**
+     * <p>Loads pages of items. Called on a background thread.</p>
+     *
+     * @param <T> The type of the items.
+     */
+    public interface PageLoader<T> {
+        /**
+         * @param start The adapter position of the first item of the page.
+         * @param count The number of items in the page.
+         * @return The items, of which there must be {@code count}.
+         * @throws Exception If the page could not be loaded. It is requested again the next time
+         *                   one of its items is bound.
+         */
+        List<T> loadPage(int start, int count) throws Exception;
+    }
+
+    private final PageLoader<T> mLoader;
+    private final Executor mExecutor;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final int mPageSize;
+    private final int mMaxPages;
+    private final SparseArray<List<T>> mPages = new SparseArray<>();
+    private final SparseArray<PageTask> mLoads = new SparseArray<>();
+
+    private int mItemCount;
+    private int mGeneration;
+    private int mPrefetchDistance;
+    private int mLastBoundPosition = RecyclerView.NO_POSITION;
+
+    /**
+     * @param loader Loads the pages.
+     * @param itemCount The total number of items.
+     * @param pageSize The number of items in each page.
+     */
+    public PagedSnapAdapter(PageLoader<T> loader, int itemCount, int pageSize) {
+        this(loader, itemCount, pageSize, DEFAULT_MAX_PAGES, AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    /**
+     * @param loader Loads the pages.
+     * @param itemCount The total number of items.
+     * @param pageSize The number of items in each page.
+     * @param maxPages The maximum number of pages to hold.
+     * @param executor Runs the loads.
+     */
+    public PagedSnapAdapter(PageLoader<T> loader, int itemCount, int pageSize, int maxPages,
+                            Executor executor) {
+        if (pageSize <= 0 || maxPages <= 0) {
+            throw new IllegalArgumentException("pageSize and maxPages must be positive");
+        }
+        mLoader = loader;
+        mItemCount = itemCount;
+        mPageSize = pageSize;
+        mMaxPages = maxPages;
+        mExecutor = executor;
+        mPrefetchDistance = pageSize / 2;
+    }
+
+    /**
+     * <p>Binds a loaded item.</p>
+     *
+     * @param holder The {@link RecyclerView.ViewHolder} to bind.
+     * @param position The adapter position of the item.
+     * @param item The item.
+     */
+    protected abstract void onBindItem(RecyclerView.ViewHolder holder, int position, T item);
+
+    /**
+     * <p>Binds a placeholder for an item whose page has not been loaded yet.</p>
+     *
+     * @param holder The {@link RecyclerView.ViewHolder} to bind.
+     * @param position The adapter position of the item.
+     */
+    protected abstract void onBindMissingItem(RecyclerView.ViewHolder holder, int position);
+
+    /**
+     * @param prefetchDistance How far ahead of each bound item, in the direction of the scroll,
+     *                         to make sure the page is loaded. Half a page by default.
+     */
+    public void setPrefetchDistance(int prefetchDistance) {
+        mPrefetchDistance = prefetchDistance;
+    }
+
+    /**
+     * <p>Gets an item, requesting its page if it has not been loaded.</p>
+     *
+     * @param position The adapter position of the item.
+     * @return The item, or {@code null} if its page has not been loaded.
+     */
+    @Nullable
+    public T getItem(int position) {
+        int page = position / mPageSize;
+        List<T> items = mPages.get(page);
+        if (items == null) {
+            loadPage(page);
+            return null;
+        }
+
+        int index = position - page * mPageSize;
+        return index < items.size() ? items.get(index) : null;
+    }
+
+    @Override
+    public int getItemCount() {
+        return mItemCount;
+    }
+
+    /**
+     * <p>Changes the total number of items, keeping the pages already loaded.</p>
+     *
+     * @param itemCount The total number of items.
+     */
+    public void setItemCount(int itemCount) {
+        mItemCount = itemCount;
+        notifyDataSetChanged();
+    }
+
+    /**
+     * <p>Drops every page and cancels every load, so that the items are loaded again as they are
+     * bound.</p>
+     */
+    public void refresh() {
+        mGeneration++;
+        for (int i = 0; i < mLoads.size(); i++) {
+            mLoads.valueAt(i).cancel(true);
+        }
+        mLoads.clear();
+        mPages.clear();
+        notifyItemRangeChanged(0, mItemCount);
+    }
+
+    @Override
+    public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+        T item = getItem(position);
+        if (item != null) {
+            onBindItem(holder, position, item);
+        } else {
+            onBindMissingItem(holder, position);
+        }
+        prefetch(position);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>Cancels the loads of pages that would be dropped around the new position.</p>
+     */
+    @Override
+    public void onItemSelected(int position) {
+        super.onItemSelected(position);
+        int currentPage = position / mPageSize;
+        for (int i = mLoads.size() - 1; i >= 0; i--) {
+            if (Math.abs(mLoads.keyAt(i) - currentPage) > mMaxPages / 2) {
+                mLoads.valueAt(i).cancel(true);
+                mLoads.removeAt(i);
+            }
+        }
+    }
+
+    private void prefetch(int position) {
+        int direction = Integer.signum(position - mLastBoundPosition);
+        mLastBoundPosition = position;
+        int target = position + direction * mPrefetchDistance;
+        if (direction != 0 && target >= 0 && target < mItemCount) {
+            int page = target / mPageSize;
+            if (mPages.get(page) == null) {
+                loadPage(page);
+            }
+        }
+    }
+
+    private void loadPage(int page) {
+        if (mLoads.get(page) == null) {
+            PageTask task = new PageTask(page, mGeneration);
+            mLoads.put(page, task);
+            mExecutor.execute(task);
+        }
+    }
+
+    private void onPageLoaded(PageTask task) {
+        if (task.mGeneration != mGeneration || mLoads.get(task.mPage) != task) {
+            return;
+        }
+
+        mLoads.remove(task.mPage);
+        List<T> items;
+        try {
+            items = task.get();
+        } catch (InterruptedException | ExecutionException e) {
+            return;
+        }
+
+        mPages.put(task.mPage, items);
+        dropDistantPages(task.mPage);
+        int start = task.mPage * mPageSize;
+        notifyItemRangeChanged(start, Math.min(mPageSize, mItemCount - start));
+    }
+
+    /**
+     * <p>Drops the pages furthest from the last item bound, which during a scroll is nearer to
+     * what is on screen than the current position, but never {@code keptPage}.</p>
+     */
+    private void dropDistantPages(int keptPage) {
+        int centre = mLastBoundPosition != RecyclerView.NO_POSITION
+                ? mLastBoundPosition : mCurrentPosition;
+        int centrePage = centre / mPageSize;
+        while (mPages.size() > mMaxPages) {
+            int furthest = -1;
+            for (int i = 0; i < mPages.size(); i++) {
+                int page = mPages.keyAt(i);
+                if (page != keptPage && (furthest < 0 || Math.abs(page - centrePage)
+                        > Math.abs(mPages.keyAt(furthest) - centrePage))) {
+                    furthest = i;
+                }
+            }
+            mPages.removeAt(furthest);
+        }
+    }
+
+    private class PageTask extends FutureTask<List<T>> {
+        private final int mPage;
+        private final int mGeneration;
+
+        PageTask(int page, int generation) {
+            super(new PageCallable(page));
+            mPage = page;
+            mGeneration = generation;
+        }
+
+        @Override
+        protected void done() {
+            if (!isCancelled()) {
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onPageLoaded(PageTask.this);
+                    }
+                });
+            }
+        }
+    }
+
+    private class PageCallable implements Callable<List<T>> {
+        private final int mStart;
+        private final int mCount;
+
+        PageCallable(int page) {
+            mStart = page * mPageSize;
+            mCount = Math.min(mPageSize, mItemCount - mStart);
+        }
+
+        @Override
+        public List<T> call() throws Exception {
+            return mLoader.loadPage(mStart, mCount);
+        }
+    }
+}
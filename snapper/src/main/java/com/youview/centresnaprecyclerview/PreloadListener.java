@@ -0,0 +1,49 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.centresnaprecyclerview;
+
+/**
+ * <p>Told which items of a {@link CentreSnapRecyclerView} are predicted to be on screen once the
+ * current scroll comes to rest, so that their content, such as artwork, can be fetched and decoded
+ * before they arrive. The prediction is made from the scroll velocity, and updated as it
+ * changes.</p>
+ *
+ * <p>Each position is preloaded once while it stays predicted, and cancelled once it no longer
+ * is. Both are reported as inclusive ranges of adapter positions, on the UI thread.</p>
+ *
+ * @see CentreSnapRecyclerView#setPreloadListener(PreloadListener)
+ */
+public interface PreloadListener {
+    /**
+     * @param firstPosition The first newly-predicted position.
+     * @param lastPosition The last newly-predicted position.
+     */
+    void onPreload(int firstPosition, int lastPosition);
+
+    /**
+     * @param firstPosition The first position that is no longer predicted.
+     * @param lastPosition The last position that is no longer predicted.
+     */
+    void onCancelPreload(int firstPosition, int lastPosition);
+}
@@ -0,0 +1,141 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.centresnaprecyclerview;
+
+/**
+ * <p>Bounded cache of the scroll state of {@link CentreSnapRecyclerView} rails, keyed by a stable
+ * rail id, for rails that are recycled and bound again inside a vertical list. Each entry is the
+ * centred position and how far, in pixels, the rail was scrolled past centring it.</p>
+ *
+ * <p>Used through {@link CentreSnapRecyclerView#setRailState(RailStateCache, long)}. Once full,
+ * the least recently used entry is replaced. Entries are held in fixed arrays, so saving and
+ * restoring state never allocates, and a lookup is a scan of at most {@code maxSize} ids. One
+ * cache can be shared by all of the rails in a list.</p>
+ */
+public final class RailStateCache {
+    public static final int DEFAULT_MAX_SIZE = 64;
+
+    private final long[] mRailIds;
+    private final int[] mPositions;
+    private final int[] mOffsets;
+    private final long[] mLastUsed;
+    private int mSize;
+    private long mUseCount;
+
+    public RailStateCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize The maximum number of rails to hold the state of.
+     */
+    public RailStateCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        mRailIds = new long[maxSize];
+        mPositions = new int[maxSize];
+        mOffsets = new int[maxSize];
+        mLastUsed = new long[maxSize];
+    }
+
+    /**
+     * @return The number of rails whose state is held.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * <p>Drops the state of the rail with the given id.</p>
+     *
+     * @param railId The stable id of the rail.
+     */
+    public void remove(long railId) {
+        int index = indexOf(railId);
+        if (index >= 0) {
+            mSize--;
+            mRailIds[index] = mRailIds[mSize];
+            mPositions[index] = mPositions[mSize];
+            mOffsets[index] = mOffsets[mSize];
+            mLastUsed[index] = mLastUsed[mSize];
+        }
+    }
+
+    /**
+     * <p>Drops the state of every rail.</p>
+     */
+    public void clear() {
+        mSize = 0;
+    }
+
+    void put(long railId, int position, int offset) {
+        int index = indexOf(railId);
+        if (index < 0) {
+            index = mSize < mRailIds.length ? mSize++ : getLeastRecentlyUsed();
+            mRailIds[index] = railId;
+        }
+        mPositions[index] = position;
+        mOffsets[index] = offset;
+        mLastUsed[index] = ++mUseCount;
+    }
+
+    /**
+     * @return The index of the rail's state, marked as just used, or {@code -1} if it is not held.
+     */
+    int get(long railId) {
+        int index = indexOf(railId);
+        if (index >= 0) {
+            mLastUsed[index] = ++mUseCount;
+        }
+        return index;
+    }
+
+    int getPosition(int index) {
+        return mPositions[index];
+    }
+
+    int getOffset(int index) {
+        return mOffsets[index];
+    }
+
+    private int indexOf(long railId) {
+        for (int i = 0; i < mSize; i++) {
+            if (mRailIds[i] == railId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int getLeastRecentlyUsed() {
+        int index = 0;
+        for (int i = 1; i < mSize; i++) {
+            if (mLastUsed[i] < mLastUsed[index]) {
+                index = i;
+            }
+        }
+        return index;
+    }
+}
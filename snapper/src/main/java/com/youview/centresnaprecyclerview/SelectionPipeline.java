@@ -0,0 +1,308 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.centresnaprecyclerview;
+
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.Nullable;
+import android.support.v7.widget.RecyclerView;
+import android.util.LruCache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * <p>Loads the details of the selected item of a {@link SnapRecyclerAdapter} off the UI thread.
+ * Set one on an adapter with {@link SnapRecyclerAdapter#setSelectionPipeline(SelectionPipeline)}.
+ * </p>
+ *
+ * <p>Selections are debounced, so that quickly settling on several items in turn only loads the
+ * last of them. Loads for items that are no longer selected, or next to the selection, are
+ * cancelled. Loaded details are kept in a bounded LRU cache keyed by
+ * {@link RecyclerView.Adapter#getItemId(int)}, so the adapter must have stable ids. The details of
+ * the neighbours of the selected item are prefetched into the cache.</p>
+ *
+ * <p>All methods must be called on the UI thread, and the {@link Listener} is called on it.</p>
+ *
+ * @param <T> The type of the loaded details.
+ */
+public class SelectionPipeline<T> {
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 150;
+    public static final int DEFAULT_CACHE_SIZE = 16;
+    public static final int DEFAULT_PREFETCH_DISTANCE = 1;
+
+    /**
+     * <p>Loads the details of an item. Called on a background thread.</p>
+     *
+     * @param <T> The type of the loaded details.
+     */
+    public interface Loader<T> {
+        /**
+         * @param itemId The stable id of the item.
+         * @return The details of the item.
+         * @throws Exception If the details could not be loaded. Nothing is cached or delivered.
+         */
+        T load(long itemId) throws Exception;
+    }
+
+    /**
+     * <p>Receives the details of the selected item.</p>
+     *
+     * @param <T> The type of the loaded details.
+     */
+    public interface Listener<T> {
+        /**
+         * @param position The adapter position of the selected item.
+         * @param details The details of the selected item.
+         */
+        void onDetailsLoaded(int position, T details);
+    }
+
+    private final Loader<T> mLoader;
+    private final Listener<T> mListener;
+    private final Executor mExecutor;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final LruCache<Long, T> mCache;
+    private final Map<Long, LoadTask> mLoads = new HashMap<>();
+
+    private long mDebounceMillis = DEFAULT_DEBOUNCE_MILLIS;
+    private int mPrefetchDistance = DEFAULT_PREFETCH_DISTANCE;
+
+    private RecyclerView.Adapter mAdapter;
+    private int mSelectedPosition = RecyclerView.NO_POSITION;
+    private long mSelectedId = RecyclerView.NO_ID;
+
+    private final Runnable mDebouncedSelection = new Runnable() {
+        @Override
+        public void run() {
+            loadSelection();
+        }
+    };
+
+    public SelectionPipeline(Loader<T> loader, Listener<T> listener) {
+        this(loader, listener, AsyncTask.THREAD_POOL_EXECUTOR, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param loader Loads the details of an item.
+     * @param listener Receives the details of the selected item.
+     * @param executor Runs the loads.
+     * @param cacheSize The maximum number of details to cache.
+     */
+    public SelectionPipeline(Loader<T> loader, Listener<T> listener, Executor executor,
+                             int cacheSize) {
+        mLoader = loader;
+        mListener = listener;
+        mExecutor = executor;
+        mCache = new LruCache<>(cacheSize);
+    }
+
+    /**
+     * @param debounceMillis How long the selection must stay the same before it is loaded.
+     */
+    public void setDebounceMillis(long debounceMillis) {
+        mDebounceMillis = debounceMillis;
+    }
+
+    /**
+     * @param prefetchDistance The number of items on each side of the selection to prefetch.
+     */
+    public void setPrefetchDistance(int prefetchDistance) {
+        mPrefetchDistance = prefetchDistance;
+    }
+
+    /**
+     * @param itemId The stable id of an item.
+     * @return The cached details of the item, or {@code null} if they are not cached.
+     */
+    @Nullable
+    public T getCachedDetails(long itemId) {
+        return mCache.get(itemId);
+    }
+
+    /**
+     * <p>Drops all cached details, for instance when the data behind them has changed.</p>
+     */
+    public void invalidate() {
+        mCache.evictAll();
+    }
+
+    void setAdapter(@Nullable RecyclerView.Adapter adapter) {
+        if (adapter != null && !adapter.hasStableIds()) {
+            throw new IllegalStateException(getClass().getSimpleName()
+                    + " must be used with an adapter that has stable ids");
+        }
+
+        mAdapter = adapter;
+        if (adapter == null) {
+            cancel();
+        }
+    }
+
+    /**
+     * <p>Informs this pipeline of a new selection. The details are loaded once it has stayed
+     * selected for the debounce time.</p>
+     *
+     * @param position The adapter position of the selected item.
+     */
+    void onItemSelected(int position) {
+        mSelectedPosition = position;
+        mSelectedId = RecyclerView.NO_ID;
+        mHandler.removeCallbacks(mDebouncedSelection);
+        mHandler.postDelayed(mDebouncedSelection, mDebounceMillis);
+    }
+
+    /**
+     * <p>Informs this pipeline that the selected item has moved to {@code position}, without
+     * being selected again, so its details are neither debounced nor loaded again.</p>
+     *
+     * @param position The new adapter position of the selected item.
+     */
+    void onSelectionMoved(int position) {
+        if (mSelectedPosition != RecyclerView.NO_POSITION) {
+            mSelectedPosition = position;
+        }
+    }
+
+    /**
+     * <p>Cancels the pending selection and all loads in progress. Cached details are kept.</p>
+     */
+    public void cancel() {
+        mHandler.removeCallbacks(mDebouncedSelection);
+        mSelectedPosition = RecyclerView.NO_POSITION;
+        mSelectedId = RecyclerView.NO_ID;
+        for (LoadTask task : mLoads.values()) {
+            task.cancel(true);
+        }
+        mLoads.clear();
+    }
+
+    private void loadSelection() {
+        int itemCount = mAdapter == null ? 0 : mAdapter.getItemCount();
+        if (mSelectedPosition < 0 || mSelectedPosition >= itemCount) {
+            return;
+        }
+
+        int first = Math.max(0, mSelectedPosition - mPrefetchDistance);
+        int last = Math.min(itemCount - 1, mSelectedPosition + mPrefetchDistance);
+
+        // Cancel the loads superseded by this selection.
+        Iterator<LoadTask> loads = mLoads.values().iterator();
+        while (loads.hasNext()) {
+            LoadTask task = loads.next();
+            if (task.mPosition < first || task.mPosition > last
+                    || mAdapter.getItemId(task.mPosition) != task.mItemId) {
+                task.cancel(true);
+                loads.remove();
+            }
+        }
+
+        mSelectedId = mAdapter.getItemId(mSelectedPosition);
+        T details = mCache.get(mSelectedId);
+        if (details != null) {
+            mListener.onDetailsLoaded(mSelectedPosition, details);
+        } else {
+            load(mSelectedPosition, mSelectedId);
+        }
+
+        // Prefetch outwards from the selection, nearest neighbours first.
+        for (int distance = 1; distance <= mPrefetchDistance; distance++) {
+            prefetch(mSelectedPosition + distance, last);
+            prefetch(mSelectedPosition - distance, last);
+        }
+    }
+
+    private void prefetch(int position, int last) {
+        if (position >= 0 && position <= last) {
+            long itemId = mAdapter.getItemId(position);
+            if (mCache.get(itemId) == null) {
+                load(position, itemId);
+            }
+        }
+    }
+
+    private void load(int position, long itemId) {
+        if (!mLoads.containsKey(itemId)) {
+            LoadTask task = new LoadTask(position, itemId);
+            mLoads.put(itemId, task);
+            mExecutor.execute(task);
+        }
+    }
+
+    private void onLoadFinished(LoadTask task) {
+        if (mLoads.get(task.mItemId) != task) {
+            // Superseded or cancelled since it finished.
+            return;
+        }
+
+        mLoads.remove(task.mItemId);
+        T details;
+        try {
+            details = task.get();
+        } catch (InterruptedException | ExecutionException e) {
+            return;
+        }
+
+        if (details != null) {
+            mCache.put(task.mItemId, details);
+            if (task.mItemId == mSelectedId) {
+                mListener.onDetailsLoaded(mSelectedPosition, details);
+            }
+        }
+    }
+
+    private class LoadTask extends FutureTask<T> {
+        private final int mPosition;
+        private final long mItemId;
+
+        LoadTask(int position, final long itemId) {
+            super(new Callable<T>() {
+                @Override
+                public T call() throws Exception {
+                    return mLoader.load(itemId);
+                }
+            });
+            mPosition = position;
+            mItemId = itemId;
+        }
+
+        @Override
+        protected void done() {
+            if (!isCancelled()) {
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onLoadFinished(LoadTask.this);
+                    }
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.centresnaprecyclerview;
+
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.Interpolator;
+import android.view.animation.LinearInterpolator;
+
+/**
+ * <p>Decides how the list animates as it snaps: the corrective scroll that centres a child once
+ * the list comes to rest, and the final stretch of every smooth scroll to a position.</p>
+ *
+ * <p>The duration grows with the distance, but is kept between a minimum and a maximum. Shorter
+ * durations settle the list in fewer frames, which matters more than smoothness on a slow
+ * device. Subclasses may override {@link #getDuration(int, int)} and {@link #getInterpolator()}
+ * for other policies.</p>
+ *
+ * <p>Set one with {@link CentreSnapRecyclerView#setSnapAnimationPolicy(SnapAnimationPolicy)}. As
+ * interpolators hold no state, a policy may be shared between lists.</p>
+ */
+public class SnapAnimationPolicy {
+    /**
+     * The time taken to animate an inch by default, in milliseconds.
+     */
+    public static final float DEFAULT_MILLISECONDS_PER_INCH = 25f;
+
+    /**
+     * The policy used unless another is set: a deceleration of up to
+     * {@link CentreKeylineLayoutManager#DEFAULT_MAX_SMOOTH_SCROLL_DURATION} milliseconds.
+     */
+    public static final SnapAnimationPolicy DEFAULT = new SnapAnimationPolicy(
+            new DecelerateInterpolator(), DEFAULT_MILLISECONDS_PER_INCH, 0,
+            CentreKeylineLayoutManager.DEFAULT_MAX_SMOOTH_SCROLL_DURATION);
+
+    private final Interpolator mInterpolator;
+    private final float mMillisecondsPerInch;
+    private final int mMinDuration;
+    private final int mMaxDuration;
+
+    /**
+     * @param interpolator The interpolator for every snap animation.
+     * @param millisecondsPerInch The time taken to animate an inch, before the limits below.
+     * @param minDuration The shortest animation, in milliseconds.
+     * @param maxDuration The longest animation, in milliseconds.
+     */
+    public SnapAnimationPolicy(Interpolator interpolator, float millisecondsPerInch,
+            int minDuration, int maxDuration) {
+        if (minDuration < 0 || maxDuration < minDuration) {
+            throw new IllegalArgumentException("Invalid duration range " + minDuration + " to "
+                    + maxDuration);
+        }
+        mInterpolator = interpolator;
+        mMillisecondsPerInch = millisecondsPerInch;
+        mMinDuration = minDuration;
+        mMaxDuration = maxDuration;
+    }
+
+    /**
+     * <p>Creates a policy that moves at a constant speed, taking no longer than
+     * {@code maxDuration}. This reaches the centre in the fewest frames, for the slowest
+     * devices.</p>
+     */
+    public static SnapAnimationPolicy createLinear(float millisecondsPerInch, int maxDuration) {
+        return new SnapAnimationPolicy(new LinearInterpolator(), millisecondsPerInch, 0,
+                maxDuration);
+    }
+
+    /**
+     * <p>Creates a policy that follows a damped spring, such as
+     * {@code createSpring(SpringInterpolator.STIFFNESS_MEDIUM,
+     * SpringInterpolator.DAMPING_RATIO_NO_BOUNCY)}. Every snap takes as long as the spring takes
+     * to settle, whatever the distance.</p>
+     *
+     * <p>A snap is still cut short to fit the time budget set by
+     * {@link CentreKeylineLayoutManager#setMaxSmoothScrollDuration(int)}, and softer springs
+     * settle well outside the default of
+     * {@value CentreKeylineLayoutManager#DEFAULT_MAX_SMOOTH_SCROLL_DURATION}ms: about 650ms for
+     * {@link SpringInterpolator#STIFFNESS_LOW}. Raise the budget to at least
+     * {@link SpringInterpolator#getSettleDuration()} so that the spring is not clipped.</p>
+     *
+     * @see SpringInterpolator#SpringInterpolator(float, float)
+     */
+    public static SnapAnimationPolicy createSpring(float stiffness, float dampingRatio) {
+        SpringInterpolator interpolator = new SpringInterpolator(stiffness, dampingRatio);
+        int duration = interpolator.getSettleDuration();
+        return new SnapAnimationPolicy(interpolator, 0, duration, duration);
+    }
+
+    /**
+     * @param distance The distance to animate, in pixels. May be negative.
+     * @param densityDpi The density of the screen.
+     * @return The duration of the animation, in milliseconds.
+     */
+    public int getDuration(int distance, int densityDpi) {
+        int duration = (int) Math.ceil(Math.abs(distance) * mMillisecondsPerInch / densityDpi);
+        return Math.max(mMinDuration, Math.min(duration, mMaxDuration));
+    }
+
+    /**
+     * @return The interpolator for every snap animation.
+     */
+    public Interpolator getInterpolator() {
+        return mInterpolator;
+    }
+}
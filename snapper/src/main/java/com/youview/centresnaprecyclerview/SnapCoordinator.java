@@ -0,0 +1,171 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.centresnaprecyclerview;
+
+import android.support.v7.widget.RecyclerView;
+import android.util.SparseBooleanArray;
+import android.util.SparseIntArray;
+
+/**
+ * <p>Coordinates many {@link CentreSnapRecyclerView} rails shown together, such as the rows of a
+ * TV home screen stacked in a vertical list. Rails join with
+ * {@link CentreSnapRecyclerView#setSnapCoordinator(SnapCoordinator, int)}.</p>
+ *
+ * <p>The rails share:</p>
+ * <ul>
+ *     <li>
+ *         <strong>A view pool</strong><br />
+ *         <p>Children are recycled into one {@link RecyclerView.RecycledViewPool}, including when
+ *         a rail is detached, so a rail scrolling into view reuses the children of one that has
+ *         scrolled out rather than inflating its own. The pool keeps as many children of each
+ *         view type as the widest rail shows at once. Rails must therefore use the same view
+ *         type only for the same kind of child.</p>
+ *     </li>
+ *     <li>
+ *         <strong>Measurements</strong><br />
+ *         <p>Rails joining with the same rail type share their child width, which is only asked
+ *         of the first of them.</p>
+ *     </li>
+ *     <li>
+ *         <strong>Snap animations</strong><br />
+ *         <p>Only one rail animates a snap at a time. If a rail starts to snap while another is
+ *         still snapping, the other is centred straight away.</p>
+ *     </li>
+ * </ul>
+ *
+ * <p>All methods must be called on the UI thread.</p>
+ */
+public class SnapCoordinator {
+    // Children partly shown at either end, beyond those that fit entirely.
+    private static final int PARTLY_VISIBLE_CHILDREN = 2;
+
+    private final SharedViewPool mViewPool = new SharedViewPool();
+    private final SparseIntArray mChildWidths = new SparseIntArray();
+    private int mMaxRecycledViews;
+
+    private CentreSnapRecyclerView mSnappingRail;
+    private CentreSnapRecyclerView mInterruptedRail;
+
+    /**
+     * @return The {@link RecyclerView.RecycledViewPool} shared by the rails.
+     */
+    public RecyclerView.RecycledViewPool getRecycledViewPool() {
+        return mViewPool;
+    }
+
+    void join(CentreSnapRecyclerView rail) {
+        rail.setRecycledViewPool(mViewPool);
+    }
+
+    void leave(CentreSnapRecyclerView rail) {
+        if (mSnappingRail == rail) {
+            mSnappingRail = null;
+        }
+        rail.setRecycledViewPool(null);
+    }
+
+    /**
+     * <p>Gets the child width shared by rails of the given type, asking {@code rail} for it if it
+     * is the first of its type to be measured.</p>
+     */
+    int getChildWidth(CentreSnapRecyclerView rail, int railType) {
+        int childWidth = mChildWidths.get(railType);
+        if (childWidth <= 0) {
+            childWidth = rail.getChildWidth();
+            mChildWidths.put(railType, childWidth);
+        }
+        return childWidth;
+    }
+
+    /**
+     * <p>Grows the view pool, if needed, to hold as many children as a rail of these measurements
+     * shows at once.</p>
+     */
+    void onMeasurementsUpdated(int width, int childWidth) {
+        if (childWidth <= 0) {
+            return;
+        }
+
+        int visibleChildren = width / childWidth + PARTLY_VISIBLE_CHILDREN;
+        if (visibleChildren > mMaxRecycledViews) {
+            mMaxRecycledViews = visibleChildren;
+            mViewPool.resize();
+        }
+    }
+
+    /**
+     * <p>Starts a snap animation on {@code rail} to centre {@code position}, first centring any
+     * other rail that is still snapping.</p>
+     */
+    void snap(CentreSnapRecyclerView rail, int position) {
+        CentreSnapRecyclerView previous = mSnappingRail;
+        mSnappingRail = rail;
+        if (previous != null && previous != rail
+                && previous.getScrollState() != RecyclerView.SCROLL_STATE_IDLE) {
+            // Stopping the scroll makes the rail idle, and so snap again, this time in place.
+            mInterruptedRail = previous;
+            previous.stopScroll();
+            mInterruptedRail = null;
+        }
+        rail.startSmoothScroll(position);
+    }
+
+    /**
+     * @return {@code true} if {@code rail} is being stopped for another rail to snap, and so must
+     *         settle without animating.
+     */
+    boolean isInterrupting(CentreSnapRecyclerView rail) {
+        return rail == mInterruptedRail;
+    }
+
+    void onSnapSettled(CentreSnapRecyclerView rail) {
+        if (mSnappingRail == rail) {
+            mSnappingRail = null;
+        }
+    }
+
+    /**
+     * <p>{@link RecyclerView.RecycledViewPool} that sizes each view type as it is first
+     * recycled, as the view types of the rails are not known up front.</p>
+     */
+    private class SharedViewPool extends RecyclerView.RecycledViewPool {
+        private final SparseBooleanArray mSizedViewTypes = new SparseBooleanArray();
+
+        @Override
+        public void putRecycledView(RecyclerView.ViewHolder scrap) {
+            int viewType = scrap.getItemViewType();
+            if (mMaxRecycledViews > 0 && !mSizedViewTypes.get(viewType)) {
+                mSizedViewTypes.put(viewType, true);
+                setMaxRecycledViews(viewType, mMaxRecycledViews);
+            }
+            super.putRecycledView(scrap);
+        }
+
+        void resize() {
+            for (int i = 0; i < mSizedViewTypes.size(); i++) {
+                setMaxRecycledViews(mSizedViewTypes.keyAt(i), mMaxRecycledViews);
+            }
+        }
+    }
+}
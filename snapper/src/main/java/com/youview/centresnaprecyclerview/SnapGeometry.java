@@ -0,0 +1,317 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.centresnaprecyclerview;
+
+/**
+ * <p>Pure arithmetic description of the layout of a {@link CentreSnapRecyclerView}, allowing the
+ * centre item and the delta required to snap it to be calculated directly from a scroll offset,
+ * rather than by hit-testing attached child {@code View}s.</p>
+ *
+ * <p>The content of the {@code RecyclerView} is modelled as a run of children of
+ * {@link #getChildWidth()} pixels, with empty space at each end (as left by the
+ * {@link CentreKeylineLayoutManager}) so that the first and last children can reach the centre.
+ * A <i>scroll offset</i> is the distance from the start of that content to the left edge of the
+ * {@code RecyclerView}.</p>
+ *
+ * <p>Nothing here depends on orientation. In a vertical list, every width is a height and the
+ * left edge is the top, and in reverse layout the start is the right or bottom edge, as mapped by
+ * the {@link CentreKeylineLayoutManager}.</p>
+ *
+ * <p>If children vary in width, an {@link OffsetIndex} can be supplied through
+ * {@link #setOffsetIndex(OffsetIndex)}, in which case it is used in place of
+ * {@link #getChildWidth()} for every calculation.</p>
+ *
+ * <p>In circular mode, set by {@link #setCircular(boolean)}, the content repeats endlessly either
+ * side of the first loop of children. Scroll offsets in any loop are accepted, centre positions are
+ * always positions within the adapter, and snap deltas take the shortest way round the loop.</p>
+ *
+ * <p>All calculations are allocation-free, and never fail: where no sensible answer exists,
+ * {@link #NO_POSITION} or a delta of {@code 0} is returned. They are constant-time for fixed-width
+ * children, and {@code O(log n)} with an {@link OffsetIndex}.</p>
+ */
+public final class SnapGeometry {
+    /**
+     * Returned from position calculations when there is no valid position, mirroring
+     * {@code RecyclerView.NO_POSITION}.
+     */
+    public static final int NO_POSITION = -1;
+
+    /**
+     * Used in place of a scroll offset when none can be calculated.
+     */
+    public static final int INVALID_OFFSET = Integer.MIN_VALUE;
+
+    private boolean mValid;
+    private int mWidth;
+    private int mChildWidth;
+    private int mEdgePadding;
+    private OffsetIndex mOffsetIndex;
+    private boolean mCircular;
+
+    /**
+     * <p>Updates the measurements this geometry is calculated from.</p>
+     *
+     * @param width The width of the associated {@link CentreSnapRecyclerView}.
+     * @param childWidth The width of each child in the {@code CentreSnapRecyclerView}.
+     */
+    public void setMeasurements(int width, int childWidth) {
+        mWidth = width;
+        mChildWidth = childWidth;
+        mEdgePadding = (width - childWidth) / 2;
+        mValid = childWidth > 0;
+    }
+
+    /**
+     * <p>Marks the stored measurements as stale, so that callers can fall back to other behaviour
+     * until {@link #setMeasurements(int, int)} is called again.</p>
+     */
+    public void invalidate() {
+        mValid = false;
+    }
+
+    /**
+     * @return {@code true} if the stored measurements can be used for calculations.
+     */
+    public boolean isValid() {
+        return mValid;
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getChildWidth() {
+        return mChildWidth;
+    }
+
+    /**
+     * @return The empty space before the first child and after the last child that allows them to
+     *         be centred, assuming they are both {@link #getChildWidth()} wide.
+     * @see #getStartPadding()
+     * @see #getEndPadding(int)
+     */
+    public int getEdgePadding() {
+        return mEdgePadding;
+    }
+
+    /**
+     * <p>Sets whether the children repeat endlessly, with the first following the last.</p>
+     *
+     * @param circular {@code true} for circular mode.
+     */
+    public void setCircular(boolean circular) {
+        mCircular = circular;
+    }
+
+    public boolean isCircular() {
+        return mCircular;
+    }
+
+    /**
+     * @param itemCount The number of items in the adapter.
+     * @return The width of one loop of all the children.
+     */
+    public int getLoopLength(int itemCount) {
+        return getItemStart(itemCount) - getStartPadding();
+    }
+
+    /**
+     * <p>In circular mode, moves {@code scrollOffset} by whole loops so that the centre of the
+     * {@code RecyclerView} lies over the first loop of children. Otherwise, returns it
+     * unchanged.</p>
+     *
+     * @param scrollOffset The scroll offset, in any loop.
+     * @param itemCount The number of items in the adapter.
+     * @return The equivalent scroll offset in the first loop.
+     */
+    public int normaliseScrollOffset(int scrollOffset, int itemCount) {
+        int loopLength = mCircular && itemCount > 0 ? getLoopLength(itemCount) : 0;
+        if (loopLength <= 0) {
+            return scrollOffset;
+        }
+
+        int fromFirstChild = scrollOffset + mWidth / 2 - getStartPadding();
+        int loops = fromFirstChild / loopLength;
+        if (fromFirstChild < 0 && loops * loopLength != fromFirstChild) {
+            // Round towards negative infinity, not zero.
+            loops--;
+        }
+        return scrollOffset - loops * loopLength;
+    }
+
+    /**
+     * <p>In circular mode, wraps {@code position} round into the positions of the adapter.
+     * Otherwise, returns it unchanged.</p>
+     *
+     * @param position The position, which may be before the first or after the last.
+     * @param itemCount The number of items in the adapter.
+     * @return The equivalent adapter position.
+     */
+    public int wrapPosition(int position, int itemCount) {
+        if (!mCircular || itemCount <= 0) {
+            return position;
+        }
+        int wrapped = position % itemCount;
+        return wrapped < 0 ? wrapped + itemCount : wrapped;
+    }
+
+    /**
+     * <p>Sets the index of child widths to use for lists whose children vary in width.</p>
+     *
+     * @param offsetIndex The {@link OffsetIndex} of child widths, or {@code null} if every child is
+     *                    {@link #getChildWidth()} wide.
+     */
+    public void setOffsetIndex(OffsetIndex offsetIndex) {
+        mOffsetIndex = offsetIndex;
+    }
+
+    public OffsetIndex getOffsetIndex() {
+        return mOffsetIndex;
+    }
+
+    /**
+     * @param position The adapter position of the child.
+     * @return The width of the child at {@code position}.
+     */
+    public int getItemWidth(int position) {
+        return mOffsetIndex != null ? mOffsetIndex.getWidth(position) : mChildWidth;
+    }
+
+    /**
+     * @return The empty space before the first child that allows it to be centred.
+     */
+    public int getStartPadding() {
+        return mOffsetIndex != null ? getCentredLeft(mOffsetIndex.getWidth(0)) : mEdgePadding;
+    }
+
+    /**
+     * @param itemCount The number of items in the adapter.
+     * @return The empty space after the last child that allows it to be centred.
+     */
+    public int getEndPadding(int itemCount) {
+        return mOffsetIndex != null
+                ? getCentredLeft(mOffsetIndex.getWidth(itemCount - 1)) : mEdgePadding;
+    }
+
+    /**
+     * <p>Calculates the left of a child of the given width when it is centred.</p>
+     *
+     * @param childWidth The actual width of the child.
+     * @return The left of the child, relative to the left of the {@code RecyclerView}.
+     */
+    public int getCentredLeft(int childWidth) {
+        return (mWidth - childWidth) / 2;
+    }
+
+    /**
+     * <p>Calculates the start of the child at {@code position}, in content coordinates.</p>
+     *
+     * @param position The adapter position of the child.
+     * @return The distance from the start of the content to the left of the child.
+     */
+    public int getItemStart(int position) {
+        if (mOffsetIndex != null) {
+            return getStartPadding() + mOffsetIndex.getOffset(position);
+        }
+        return mEdgePadding + position * mChildWidth;
+    }
+
+    /**
+     * <p>Calculates the scroll offset at which the child at {@code position} is centred, that is,
+     * at which its left is at {@link #getCentredLeft(int)}. Where the child cannot be centred to
+     * the pixel, both round the same way, so a centred child always has a snap delta of
+     * {@code 0}.</p>
+     *
+     * @param position The adapter position of the child.
+     * @return The scroll offset centring the child.
+     */
+    public int getCentredOffset(int position) {
+        return getItemStart(position) - getCentredLeft(getItemWidth(position));
+    }
+
+    /**
+     * <p>Derives the current scroll offset from any single attached child, so that no other
+     * children need to be inspected.</p>
+     * <p>With an {@link OffsetIndex}, the result is exact whichever child is used.</p>
+     *
+     * @param anchorPosition The layout position of the attached child.
+     * @param anchorLeft The current left of the attached child, relative to the
+     *                   {@code RecyclerView}.
+     * @return The current scroll offset.
+     */
+    public int getScrollOffset(int anchorPosition, int anchorLeft) {
+        return getItemStart(anchorPosition) - anchorLeft;
+    }
+
+    /**
+     * <p>Calculates which position lies under the centre of the {@code RecyclerView} at the given
+     * scroll offset. Offsets outside the content are clamped to the first or last position, so a
+     * centre that lands in padding or a gap still resolves to the nearest child.</p>
+     *
+     * @param scrollOffset The current scroll offset.
+     * @param itemCount The number of items in the adapter.
+     * @return The centre position, or {@link #NO_POSITION} if there are no items or the
+     *         measurements are not valid.
+     */
+    public int getCentrePosition(int scrollOffset, int itemCount) {
+        if (!mValid || itemCount <= 0) {
+            return NO_POSITION;
+        }
+        scrollOffset = normaliseScrollOffset(scrollOffset, itemCount);
+
+        int fromFirstChild = scrollOffset + mWidth / 2 - getStartPadding();
+        if (fromFirstChild <= 0) {
+            return 0;
+        }
+        int position = mOffsetIndex != null
+                ? mOffsetIndex.getPosition(fromFirstChild) : fromFirstChild / mChildWidth;
+        return position < itemCount ? position : itemCount - 1;
+    }
+
+    /**
+     * <p>Calculates the distance to scroll by to bring the child at {@code position} to the centre
+     * of the {@code RecyclerView}. In circular mode, this is the shortest way round the loop.</p>
+     *
+     * @param scrollOffset The current scroll offset.
+     * @param position The adapter position of the child to centre.
+     * @param itemCount The number of items in the adapter.
+     * @return The delta to scroll by, or {@code 0} if the measurements are not valid.
+     */
+    public int getSnapDelta(int scrollOffset, int position, int itemCount) {
+        if (!mValid || position == NO_POSITION) {
+            return 0;
+        }
+
+        int delta = getCentredOffset(position) - normaliseScrollOffset(scrollOffset, itemCount);
+        int loopLength = mCircular && itemCount > 0 ? getLoopLength(itemCount) : 0;
+        if (loopLength > 0) {
+            if (delta > loopLength / 2) {
+                delta -= loopLength;
+            } else if (delta < -loopLength / 2) {
+                delta += loopLength;
+            }
+        }
+        return delta;
+    }
+}
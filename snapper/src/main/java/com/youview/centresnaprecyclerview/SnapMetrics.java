@@ -0,0 +1,138 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.centresnaprecyclerview;
+
+import android.os.SystemClock;
+
+/**
+ * <p>Records how each snap performs, and reports it to a {@link Sink}. A snap runs from the moment
+ * the user releases the list, or a programmatic scroll starts, until an item is settled in the
+ * centre.</p>
+ *
+ * <p>Set one with {@link CentreSnapRecyclerView#setSnapMetrics(SnapMetrics)}. Nothing is recorded,
+ * and no time is read, unless one is set.</p>
+ */
+public final class SnapMetrics {
+    /**
+     * <p>Receives snap metrics, for instance to forward them to telemetry. Called on the UI
+     * thread, so implementations should be cheap.</p>
+     */
+    public interface Sink {
+        /**
+         * <p>Called for each animation frame while a snap is running.</p>
+         *
+         * @param frameDurationNanos The time since the previous frame, or since the snap started.
+         */
+        void onSnapFrame(long frameDurationNanos);
+
+        /**
+         * <p>Called once a snap has settled.</p>
+         *
+         * @param durationMillis The time from release until the item was centred.
+         * @param correctivePasses The number of corrective scrolls needed to centre the item.
+         * @param settleIterations The number of times the list came to rest before the item was
+         *                         centred, including the last.
+         * @param frameCount The number of animation frames.
+         * @param bindCount The number of items bound.
+         * @param layoutCount The number of layout passes.
+         */
+        void onSnapSettled(long durationMillis, int correctivePasses, int settleIterations,
+                           int frameCount, int bindCount, int layoutCount);
+    }
+
+    private final Sink mSink;
+
+    private boolean mActive;
+    private long mStartMillis;
+    private long mLastFrameNanos;
+    private int mCorrectivePasses;
+    private int mSettleIterations;
+    private int mFrameCount;
+    private int mBindCount;
+    private int mLayoutCount;
+
+    public SnapMetrics(Sink sink) {
+        mSink = sink;
+    }
+
+    boolean isActive() {
+        return mActive;
+    }
+
+    void onSnapStarted() {
+        mActive = true;
+        mStartMillis = SystemClock.uptimeMillis();
+        mLastFrameNanos = System.nanoTime();
+        mCorrectivePasses = 0;
+        mSettleIterations = 0;
+        mFrameCount = 0;
+        mBindCount = 0;
+        mLayoutCount = 0;
+    }
+
+    void onSnapCancelled() {
+        mActive = false;
+    }
+
+    void onFrame() {
+        if (mActive) {
+            long now = System.nanoTime();
+            mFrameCount++;
+            mSink.onSnapFrame(now - mLastFrameNanos);
+            mLastFrameNanos = now;
+        }
+    }
+
+    void onCorrectiveScroll() {
+        if (mActive) {
+            mCorrectivePasses++;
+        }
+    }
+
+    void onSettleIteration() {
+        if (mActive) {
+            mSettleIterations++;
+        }
+    }
+
+    void onBind() {
+        if (mActive) {
+            mBindCount++;
+        }
+    }
+
+    void onLayout() {
+        if (mActive) {
+            mLayoutCount++;
+        }
+    }
+
+    void onSnapSettled() {
+        if (mActive) {
+            mActive = false;
+            mSink.onSnapSettled(SystemClock.uptimeMillis() - mStartMillis, mCorrectivePasses,
+                    mSettleIterations, mFrameCount, mBindCount, mLayoutCount);
+        }
+    }
+}
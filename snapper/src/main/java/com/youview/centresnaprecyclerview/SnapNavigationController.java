@@ -0,0 +1,294 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.centresnaprecyclerview;
+
+import android.support.v4.view.ViewCompat;
+import android.support.v7.widget.RecyclerView;
+import android.view.KeyEvent;
+import android.view.View;
+
+/**
+ * <p>Coalesces navigation requests for a {@link CentreSnapRecyclerView} into a single target
+ * position, which is scrolled to at most once per frame.</p>
+ *
+ * <p>D-pad presses along the main axis of the list, left and right or up and down if it is
+ * vertical, move the target by one item in the direction pressed, or by more as the key is held,
+ * so holding a key on a remote control accelerates through the list. Programmatic calls to
+ * {@link CentreSnapRecyclerView#smoothScrollToPosition(int)} move the target in the same way. As
+ * only the latest target is ever scrolled to, key repeats cannot queue up or overshoot, and
+ * {@link SnapRecyclerAdapter#onItemSelected(int)} is called once the list settles after the key is
+ * released.</p>
+ *
+ * <p>In circular mode, keys move the list the way they point, however far the target runs ahead
+ * of the centre, while programmatic calls take the shortest way round.</p>
+ */
+public class SnapNavigationController {
+    // How long a key must be held before each further item is added to every repeat.
+    private static final long ACCELERATION_INTERVAL_MILLIS = 400;
+    private static final int MAX_ITEMS_PER_REPEAT = 5;
+
+    private final CentreSnapRecyclerView mRecyclerView;
+
+    private int mTargetPosition = RecyclerView.NO_POSITION;
+    // The way round the loop to the target in circular mode, or 0 for the shortest way.
+    private int mTargetDirection;
+    private int mDispatchedPosition = RecyclerView.NO_POSITION;
+    private boolean mFramePosted;
+    private boolean mKeyHeld;
+
+    private final Runnable mFrameCallback = new Runnable() {
+        @Override
+        public void run() {
+            onFrame();
+        }
+    };
+
+    SnapNavigationController(CentreSnapRecyclerView recyclerView) {
+        mRecyclerView = recyclerView;
+    }
+
+    /**
+     * <p>Handles D-pad key events along the main axis of the list. Keys that would move past
+     * either end of a list that is not circular are not consumed, so that the framework can move
+     * focus out of the list.</p>
+     *
+     * @param event The {@link KeyEvent} to handle.
+     * @return {@code true} if the event was consumed.
+     */
+    public boolean onKeyEvent(KeyEvent event) {
+        int direction = getKeyDirection(event.getKeyCode());
+        if (direction == 0) {
+            return false;
+        }
+
+        if (event.getAction() == KeyEvent.ACTION_DOWN) {
+            if (!canMoveBy(direction)) {
+                // The key is passed on, and its release may never reach this list.
+                mKeyHeld = false;
+                settleIfIdle();
+                return false;
+            }
+            mKeyHeld = true;
+            long heldMillis = event.getEventTime() - event.getDownTime();
+            int items = 1 + (int) Math.min(heldMillis / ACCELERATION_INTERVAL_MILLIS,
+                    MAX_ITEMS_PER_REPEAT - 1);
+            moveBy(direction * items);
+        } else if (event.getAction() == KeyEvent.ACTION_UP) {
+            if (!mKeyHeld) {
+                return false;
+            }
+            mKeyHeld = false;
+            settleIfIdle();
+        }
+        return true;
+    }
+
+    /**
+     * @return {@code 1} if {@code keyCode} moves towards the end of the list, {@code -1} if it
+     *         moves towards the start, or {@code 0} if it is not along the main axis.
+     */
+    private int getKeyDirection(int keyCode) {
+        SnapOrientation orientation = mRecyclerView.mLayoutManager.getSnapOrientation();
+        int direction;
+        if (keyCode == (orientation.isVertical()
+                ? KeyEvent.KEYCODE_DPAD_UP : KeyEvent.KEYCODE_DPAD_LEFT)) {
+            direction = -1;
+        } else if (keyCode == (orientation.isVertical()
+                ? KeyEvent.KEYCODE_DPAD_DOWN : KeyEvent.KEYCODE_DPAD_RIGHT)) {
+            direction = 1;
+        } else {
+            return 0;
+        }
+        // The key moves the list the way it points on the screen.
+        return orientation.isReverse() ? -direction : direction;
+    }
+
+    /**
+     * @param focusDirection A direction for {@link android.view.View#focusSearch(int)}.
+     * @return {@code 1} if {@code focusDirection} points towards the end of the list on the
+     *         screen, {@code -1} if it points towards the start, or {@code 0} if it is not along
+     *         the main axis.
+     */
+    int getFocusDirection(int focusDirection) {
+        SnapOrientation orientation = mRecyclerView.mLayoutManager.getSnapOrientation();
+        int direction;
+        if (focusDirection == (orientation.isVertical() ? View.FOCUS_UP : View.FOCUS_LEFT)) {
+            direction = -1;
+        } else if (focusDirection
+                == (orientation.isVertical() ? View.FOCUS_DOWN : View.FOCUS_RIGHT)) {
+            direction = 1;
+        } else {
+            return 0;
+        }
+        return orientation.isReverse() ? -direction : direction;
+    }
+
+    /**
+     * @param direction {@code 1} towards the end of the list, or {@code -1} towards the start.
+     * @return {@code true} if there is a position to move to that way from the current target,
+     *         or from the centre if there is none.
+     */
+    boolean canMoveBy(int direction) {
+        RecyclerView.Adapter adapter = mRecyclerView.getAdapter();
+        int itemCount = adapter != null ? adapter.getItemCount() : 0;
+        if (itemCount == 0) {
+            return false;
+        }
+        if (mRecyclerView.getSnapGeometry().isCircular()) {
+            return itemCount > 1;
+        }
+        int position = getBasePosition() + direction;
+        return position >= 0 && position < itemCount;
+    }
+
+    /**
+     * <p>Moves the target position by {@code items}, relative to the current target if there is
+     * one, else relative to the item currently in the centre.</p>
+     *
+     * @param items The number of items to move by. Negative values move towards the start.
+     */
+    public void moveBy(int items) {
+        SnapGeometry geometry = mRecyclerView.getSnapGeometry();
+        RecyclerView.Adapter adapter = mRecyclerView.getAdapter();
+        if (!geometry.isCircular() || adapter == null || adapter.getItemCount() == 0) {
+            moveTo(getBasePosition() + items);
+            return;
+        }
+
+        // Kept within one loop of the centre, so that the target is never ambiguous.
+        int itemCount = adapter.getItemCount();
+        int centre = getCentrePosition();
+        int lead = Math.max(-(itemCount - 1),
+                Math.min(getLead(centre, itemCount) + items, itemCount - 1));
+        setTarget(geometry.wrapPosition(centre + lead, itemCount), Integer.signum(lead));
+    }
+
+    /**
+     * <p>Sets the target position, which will be scrolled to on the next frame. The position is
+     * clamped to the bounds of the adapter, or in circular mode wrapped round into them.</p>
+     *
+     * @param position The adapter position to scroll to.
+     */
+    public void moveTo(int position) {
+        RecyclerView.Adapter adapter = mRecyclerView.getAdapter();
+        if (adapter == null || adapter.getItemCount() == 0) {
+            return;
+        }
+
+        int itemCount = adapter.getItemCount();
+        SnapGeometry geometry = mRecyclerView.getSnapGeometry();
+        setTarget(geometry.isCircular() ? geometry.wrapPosition(position, itemCount)
+                : Math.max(0, Math.min(position, itemCount - 1)), 0);
+    }
+
+    private void setTarget(int position, int direction) {
+        mTargetPosition = position;
+        mTargetDirection = direction;
+        if (!mFramePosted) {
+            mFramePosted = true;
+            ViewCompat.postOnAnimation(mRecyclerView, mFrameCallback);
+        }
+    }
+
+    /**
+     * <p>Abandons any target that has not yet been scrolled to.</p>
+     */
+    public void cancel() {
+        if (mFramePosted) {
+            mRecyclerView.removeCallbacks(mFrameCallback);
+            mFramePosted = false;
+        }
+        mKeyHeld = false;
+        mTargetPosition = RecyclerView.NO_POSITION;
+        mTargetDirection = 0;
+        mDispatchedPosition = RecyclerView.NO_POSITION;
+    }
+
+    /**
+     * @return {@code true} while a navigation key is held or a target is waiting for the next
+     *         frame, during which time the list should not be considered settled.
+     */
+    public boolean isNavigating() {
+        return mKeyHeld || mFramePosted;
+    }
+
+    /**
+     * <p>Scrolls to the latest target, once per frame.</p>
+     */
+    private void onFrame() {
+        mFramePosted = false;
+        if (mTargetPosition != mDispatchedPosition
+                || mRecyclerView.getScrollState() == RecyclerView.SCROLL_STATE_IDLE) {
+            mDispatchedPosition = mTargetPosition;
+            mRecyclerView.startSmoothScroll(mTargetPosition, mTargetDirection);
+        }
+    }
+
+    private boolean isMoving() {
+        return isNavigating() || mRecyclerView.getScrollState() != RecyclerView.SCROLL_STATE_IDLE;
+    }
+
+    private int getBasePosition() {
+        if (isMoving() && mTargetPosition != RecyclerView.NO_POSITION) {
+            return mTargetPosition;
+        }
+        return getCentrePosition();
+    }
+
+    /**
+     * @return The number of items from {@code centre} to the target, counted the way the list is
+     *         heading round the loop, which may be the long way, or {@code 0} if there is no
+     *         target.
+     */
+    private int getLead(int centre, int itemCount) {
+        if (!isMoving() || mTargetPosition == RecyclerView.NO_POSITION) {
+            return 0;
+        }
+        int forward = mRecyclerView.getSnapGeometry().wrapPosition(mTargetPosition - centre,
+                itemCount);
+        boolean heading = mTargetDirection > 0
+                || mTargetDirection == 0 && forward <= itemCount / 2;
+        return heading || forward == 0 ? forward : forward - itemCount;
+    }
+
+    private int getCentrePosition() {
+        SnapRecyclerAdapter adapter = (SnapRecyclerAdapter) mRecyclerView.getAdapter();
+        int scrollOffset = mRecyclerView.getSnapScrollOffset();
+        if (scrollOffset == SnapGeometry.INVALID_OFFSET) {
+            return adapter.getCurrentPosition();
+        }
+        return mRecyclerView.getSnapGeometry().getCentrePosition(scrollOffset,
+                adapter.getItemCount());
+    }
+
+    /**
+     * <p>If the list reached its target while the key was still held, the selection was deferred
+     * until now.</p>
+     */
+    private void settleIfIdle() {
+        if (!mFramePosted && mRecyclerView.getScrollState() == RecyclerView.SCROLL_STATE_IDLE) {
+            mRecyclerView.mScrollListener.onScrollCompleted(mRecyclerView);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.centresnaprecyclerview;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+
+/**
+ * <p>Maps the main axis of a {@link CentreKeylineLayoutManager} onto the screen, so that the
+ * layout, scrolling and snapping code is written once, in terms of a start, an end and a size,
+ * for both orientations.</p>
+ *
+ * <p>Positions along the main axis run from the start of the list: the left or top edge, or in
+ * reverse layout the right or bottom edge. Scroll deltas are positive towards the end of the list.
+ * Each method is a branch on two fields and a call through to the {@code LayoutManager}, with no
+ * allocation, so horizontal and vertical lists share the same hot path at the same cost.</p>
+ */
+final class SnapOrientation {
+    private final RecyclerView.LayoutManager mLayoutManager;
+    private boolean mVertical;
+    private boolean mReverse;
+
+    SnapOrientation(RecyclerView.LayoutManager layoutManager) {
+        mLayoutManager = layoutManager;
+    }
+
+    void setVertical(boolean vertical) {
+        mVertical = vertical;
+    }
+
+    boolean isVertical() {
+        return mVertical;
+    }
+
+    void setReverse(boolean reverse) {
+        mReverse = reverse;
+    }
+
+    boolean isReverse() {
+        return mReverse;
+    }
+
+    /**
+     * @return The size of the {@code RecyclerView} along the main axis.
+     */
+    int getSize() {
+        return mVertical ? mLayoutManager.getHeight() : mLayoutManager.getWidth();
+    }
+
+    /**
+     * @return The size of {@code child} along the main axis, including decorations.
+     */
+    int getMeasurement(View child) {
+        return mVertical ? mLayoutManager.getDecoratedMeasuredHeight(child)
+                : mLayoutManager.getDecoratedMeasuredWidth(child);
+    }
+
+    /**
+     * @return The distance from the start edge of the {@code RecyclerView} to the start of
+     *         {@code child}, including decorations.
+     */
+    int getStart(View child) {
+        if (mReverse) {
+            return getSize() - (mVertical ? mLayoutManager.getDecoratedBottom(child)
+                    : mLayoutManager.getDecoratedRight(child));
+        }
+        return mVertical ? mLayoutManager.getDecoratedTop(child)
+                : mLayoutManager.getDecoratedLeft(child);
+    }
+
+    /**
+     * @return The distance from the start edge of the {@code RecyclerView} to the end of
+     *         {@code child}, including decorations.
+     */
+    int getEnd(View child) {
+        return getStart(child) + getMeasurement(child);
+    }
+
+    /**
+     * <p>Lays out a measured {@code child} from {@code start} along the main axis, and against the
+     * padding on the cross axis.</p>
+     *
+     * @return The end of the child.
+     */
+    int layout(View child, int start) {
+        int measurement = getMeasurement(child);
+        int end = start + measurement;
+        int low = mReverse ? getSize() - end : start;
+        if (mVertical) {
+            int left = mLayoutManager.getPaddingLeft();
+            mLayoutManager.layoutDecorated(child, left, low,
+                    left + mLayoutManager.getDecoratedMeasuredWidth(child), low + measurement);
+        } else {
+            int top = mLayoutManager.getPaddingTop();
+            mLayoutManager.layoutDecorated(child, low, top, low + measurement,
+                    top + mLayoutManager.getDecoratedMeasuredHeight(child));
+        }
+        return end;
+    }
+
+    /**
+     * <p>Moves every attached child {@code delta} pixels towards the end of the list.</p>
+     */
+    void offsetChildren(int delta) {
+        int offset = mReverse ? -delta : delta;
+        if (mVertical) {
+            mLayoutManager.offsetChildrenVertical(offset);
+        } else {
+            mLayoutManager.offsetChildrenHorizontal(offset);
+        }
+    }
+
+    /**
+     * <p>Converts a scroll, or a velocity, on the screen axes to one along the main axis.</p>
+     *
+     * @return The part of the scroll along the main axis, positive towards the end of the list.
+     */
+    int getDelta(int dx, int dy) {
+        int delta = mVertical ? dy : dx;
+        return mReverse ? -delta : delta;
+    }
+
+    /**
+     * @param delta A scroll, or a velocity, along the main axis.
+     * @return The horizontal part of {@code delta} on the screen.
+     */
+    int getDx(int delta) {
+        return mVertical ? 0 : mReverse ? -delta : delta;
+    }
+
+    /**
+     * @param delta A scroll, or a velocity, along the main axis.
+     * @return The vertical part of {@code delta} on the screen.
+     */
+    int getDy(int delta) {
+        return !mVertical ? 0 : mReverse ? -delta : delta;
+    }
+}
@@ -23,16 +23,40 @@
 
 package com.youview.centresnaprecyclerview;
 
+import android.support.annotation.Nullable;
 import android.support.v7.widget.RecyclerView;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * <p>Implementation of {@link RecyclerView.Adapter} to work with a {@link CentreSnapRecyclerView}
  * that exposes extra information, allowing the {@code RecyclerView} to keep its centred state, and
  * for changes in this {@code Adapter}'s current item to be propagated.
+ *
+ * <p>Binding can optionally happen in two phases. While the list is scrolling fast, a sub-class
+ * can bind a cheap placeholder by overriding {@link #onBindPlaceholder(RecyclerView.ViewHolder,
+ * int)}. Once the list slows down or settles, the placeholders that are still attached are
+ * completed by {@link #onBindDeferred(RecyclerView.ViewHolder, int)}, through a payload rebind
+ * of the same {@code ViewHolder}.</p>
  */
 public abstract class SnapRecyclerAdapter extends RecyclerView.Adapter {
+    /**
+     * The payload used to complete placeholder binds.
+     */
+    public static final Object PAYLOAD_DEFERRED_BIND = new Object();
+
     protected int mCurrentPosition;
 
+    private SelectionPipeline<?> mSelectionPipeline;
+    private SnapMetrics mSnapMetrics;
+    private CentreSnapRecyclerView mRecyclerView;
+    private boolean mFastScrolling;
+    private final List<RecyclerView.ViewHolder> mPlaceholderHolders = new ArrayList<>();
+    // Reused for the payloads coalesced with a deferred bind, so that binds never allocate.
+    private final List<Object> mOtherPayloads = new ArrayList<>();
+
     /**
      * <p>Informs this {@code Adapter} that the selected item has changed.</p>
      *
@@ -40,6 +64,41 @@ public abstract class SnapRecyclerAdapter extends RecyclerView.Adapter {
      */
     public void onItemSelected(int position) {
         mCurrentPosition = position;
+        if (mSelectionPipeline != null) {
+            mSelectionPipeline.onItemSelected(position);
+        }
+    }
+
+    /**
+     * <p>Moves the current position to follow the current item, which has moved within the data
+     * set, without selecting it again.</p>
+     *
+     * @param position The new adapter position of the current item.
+     */
+    void moveCurrentPosition(int position) {
+        mCurrentPosition = position;
+        if (mSelectionPipeline != null) {
+            mSelectionPipeline.onSelectionMoved(position);
+        }
+    }
+
+    /**
+     * <p>Sets a {@link SelectionPipeline} to load the details of each selected item in the
+     * background. Any previous pipeline has its loads cancelled.</p>
+     *
+     * @param selectionPipeline The pipeline, or {@code null} to stop loading details.
+     * @throws IllegalStateException If a pipeline is given and this adapter does not have stable
+     * ids.
+     */
+    public void setSelectionPipeline(@Nullable SelectionPipeline<?> selectionPipeline) {
+        if (selectionPipeline != null) {
+            selectionPipeline.setAdapter(this);
+        }
+
+        if (mSelectionPipeline != null && mSelectionPipeline != selectionPipeline) {
+            mSelectionPipeline.setAdapter(null);
+        }
+        mSelectionPipeline = selectionPipeline;
     }
 
     /**
@@ -52,4 +111,157 @@ public abstract class SnapRecyclerAdapter extends RecyclerView.Adapter {
     public int getCurrentPosition() {
         return mCurrentPosition;
     }
+
+    void setSnapMetrics(SnapMetrics snapMetrics) {
+        mSnapMetrics = snapMetrics;
+    }
+
+    void setRecyclerView(CentreSnapRecyclerView recyclerView) {
+        mRecyclerView = recyclerView;
+        if (recyclerView == null) {
+            mPlaceholderHolders.clear();
+        }
+    }
+
+    /**
+     * <p>Forgets a recycled holder. Called by the {@link CentreSnapRecyclerView} itself rather than
+     * from {@link #onViewRecycled(RecyclerView.ViewHolder)}, so that sub-classes overriding that
+     * need not call through.</p>
+     *
+     * @param holder The recycled {@link RecyclerView.ViewHolder}.
+     */
+    final void onHolderRecycled(RecyclerView.ViewHolder holder) {
+        mPlaceholderHolders.remove(holder);
+    }
+
+    /**
+     * @return The {@link CentreSnapRecyclerView} this {@code Adapter} is set on, or {@code null}.
+     */
+    CentreSnapRecyclerView getRecyclerView() {
+        return mRecyclerView;
+    }
+
+    /**
+     * <p>Informs this {@code Adapter} whether the list is scrolling too fast for its items to be
+     * seen. When this becomes {@code false}, any placeholders still bound are completed.</p>
+     *
+     * @param fastScrolling {@code true} if the list is scrolling fast.
+     */
+    public void setFastScrolling(boolean fastScrolling) {
+        if (fastScrolling == mFastScrolling) {
+            return;
+        }
+
+        mFastScrolling = fastScrolling;
+        if (!fastScrolling) {
+            for (int i = mPlaceholderHolders.size() - 1; i >= 0; i--) {
+                int position = mPlaceholderHolders.get(i).getAdapterPosition();
+                if (position != RecyclerView.NO_POSITION) {
+                    notifyItemChanged(position, PAYLOAD_DEFERRED_BIND);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if the list is scrolling too fast for its items to be seen.
+     */
+    public boolean isFastScrolling() {
+        return mFastScrolling;
+    }
+
+    /**
+     * <p>Says whether {@link #onCreateViewHolder(android.view.ViewGroup, int)} may be called off
+     * the main thread for {@code viewType}, so that a {@link CentreSnapRecyclerView} with a
+     * pre-inflation executor can create holders of that type in the background. Only return
+     * {@code true} for layouts whose views do nothing thread-bound as they are created. The base
+     * implementation returns {@code false}.</p>
+     *
+     * @param viewType The view type to create.
+     * @return {@code true} if holders of {@code viewType} may be created in the background.
+     * @see CentreSnapRecyclerView#setViewPreinflationExecutor(java.util.concurrent.Executor)
+     */
+    protected boolean canCreateViewHolderInBackground(int viewType) {
+        return false;
+    }
+
+    /**
+     * <p>Binds a cheap placeholder for the item at {@code position}, for use while the list is
+     * scrolling fast. The base implementation binds no placeholder.</p>
+     *
+     * @param holder The {@link RecyclerView.ViewHolder} to bind.
+     * @param position The adapter position of the item.
+     * @return {@code true} if a placeholder was bound, or {@code false} to bind the item in full
+     *         straight away.
+     */
+    protected boolean onBindPlaceholder(RecyclerView.ViewHolder holder, int position) {
+        return false;
+    }
+
+    /**
+     * <p>Completes the binding of an item that was bound as a placeholder. The base implementation
+     * performs a full bind, but sub-classes can override this to bind only what the placeholder
+     * left out.</p>
+     *
+     * @param holder The {@link RecyclerView.ViewHolder} holding the placeholder.
+     * @param position The adapter position of the item.
+     */
+    protected void onBindDeferred(RecyclerView.ViewHolder holder, int position) {
+        onBindViewHolder(holder, position);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>Routes the bind to {@link #onBindPlaceholder(RecyclerView.ViewHolder, int)} while
+     * scrolling fast, and to {@link #onBindDeferred(RecyclerView.ViewHolder, int)} when completing
+     * a placeholder. Any other payloads coalesced with {@link #PAYLOAD_DEFERRED_BIND} are passed on
+     * after the deferred bind. If the holder no longer holds a placeholder, it is bound in full
+     * instead, as it may not hold this item at all.</p>
+     */
+    @Override
+    public void onBindViewHolder(RecyclerView.ViewHolder holder, int position, List payloads) {
+        if (mSnapMetrics != null) {
+            mSnapMetrics.onBind();
+        }
+
+        if (payloads.contains(PAYLOAD_DEFERRED_BIND)) {
+            if (!mPlaceholderHolders.remove(holder)) {
+                bind(holder, position, Collections.emptyList());
+                return;
+            }
+
+            onBindDeferred(holder, position);
+            if (payloads.size() > 1) {
+                List<Object> otherPayloads = mOtherPayloads;
+                for (int i = 0; i < payloads.size(); i++) {
+                    Object payload = payloads.get(i);
+                    if (payload != PAYLOAD_DEFERRED_BIND) {
+                        otherPayloads.add(payload);
+                    }
+                }
+                try {
+                    if (!otherPayloads.isEmpty()) {
+                        super.onBindViewHolder(holder, position, otherPayloads);
+                    }
+                } finally {
+                    otherPayloads.clear();
+                }
+            }
+            return;
+        }
+
+        bind(holder, position, payloads);
+    }
+
+    private void bind(RecyclerView.ViewHolder holder, int position, List payloads) {
+        if (mFastScrolling && onBindPlaceholder(holder, position)) {
+            if (!mPlaceholderHolders.contains(holder)) {
+                mPlaceholderHolders.add(holder);
+            }
+            return;
+        }
+
+        mPlaceholderHolders.remove(holder);
+        super.onBindViewHolder(holder, position, payloads);
+    }
 }
@@ -0,0 +1,156 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.centresnaprecyclerview;
+
+import android.view.animation.Interpolator;
+
+/**
+ * <p>{@link Interpolator} that follows a damped spring, of unit mass, released from rest at the
+ * start of the animation and coming to rest at the end.</p>
+ *
+ * <p>How long the spring takes to settle does not depend on how far it has to move, so use
+ * {@link #getSettleDuration()} as the duration of the animation. The interpolation is stretched
+ * or squeezed to fit if a different duration is used.</p>
+ */
+public class SpringInterpolator implements Interpolator {
+    /**
+     * A stiff spring, settling in about 90ms when critically damped.
+     */
+    public static final float STIFFNESS_HIGH = 10000f;
+
+    /**
+     * A spring settling in about 240ms when critically damped.
+     */
+    public static final float STIFFNESS_MEDIUM = 1500f;
+
+    /**
+     * A soft spring, settling in about 650ms when critically damped.
+     */
+    public static final float STIFFNESS_LOW = 200f;
+
+    /**
+     * The quickest damping that never overshoots.
+     */
+    public static final float DAMPING_RATIO_NO_BOUNCY = 1f;
+
+    /**
+     * Damping that overshoots slightly before settling.
+     */
+    public static final float DAMPING_RATIO_LOW_BOUNCY = 0.75f;
+
+    // The spring has settled when it is this fraction of the distance from rest. That is about
+    // 2px for a snap across a 1920px screen, which the last frame jumps at most.
+    private static final double SETTLED_FRACTION = 0.001;
+    // Enough to find the settle time to well under a microsecond.
+    private static final int BISECTION_STEPS = 40;
+
+    private final double mNaturalFrequency;
+    private final double mDampingRatio;
+    private final double mSettleTime;
+
+    /**
+     * @param stiffness The spring constant, such as {@link #STIFFNESS_MEDIUM}.
+     * @param dampingRatio Less than 1 to overshoot, 1 for critical damping, or more than 1 to
+     *                     approach more slowly.
+     */
+    public SpringInterpolator(float stiffness, float dampingRatio) {
+        if (stiffness <= 0 || dampingRatio <= 0) {
+            throw new IllegalArgumentException("Stiffness and damping ratio must be positive");
+        }
+        mNaturalFrequency = Math.sqrt(stiffness);
+        mDampingRatio = dampingRatio;
+
+        if (dampingRatio < 1) {
+            // The displacement oscillates inside an envelope that starts above 1, so wait for the
+            // envelope rather than its exponential alone to fall to the settled fraction.
+            double amplitude = 1 / Math.sqrt(1 - (double) dampingRatio * dampingRatio);
+            mSettleTime = Math.log(amplitude / SETTLED_FRACTION)
+                    / (dampingRatio * mNaturalFrequency);
+        } else {
+            mSettleTime = getTimeToFallTo(SETTLED_FRACTION);
+        }
+    }
+
+    /**
+     * @return The time the spring takes to settle, in milliseconds.
+     */
+    public int getSettleDuration() {
+        return (int) Math.ceil(mSettleTime * 1000);
+    }
+
+    @Override
+    public float getInterpolation(float input) {
+        if (input >= 1) {
+            // Land exactly on the target, rather than the settled fraction away from it.
+            return 1;
+        }
+
+        return (float) (1 - getDisplacement(input * mSettleTime));
+    }
+
+    /**
+     * @param t The time since release, in seconds.
+     * @return The distance of the spring from rest, as a fraction of the distance it started at.
+     */
+    private double getDisplacement(double t) {
+        double w = mNaturalFrequency;
+        double z = mDampingRatio;
+        double displacement;
+        if (z < 1) {
+            double dampedFrequency = w * Math.sqrt(1 - z * z);
+            displacement = Math.exp(-z * w * t) * (Math.cos(dampedFrequency * t)
+                    + z * w / dampedFrequency * Math.sin(dampedFrequency * t));
+        } else if (z == 1) {
+            displacement = Math.exp(-w * t) * (1 + w * t);
+        } else {
+            double root = w * Math.sqrt(z * z - 1);
+            double slow = -z * w + root;
+            double fast = -z * w - root;
+            displacement = (fast * Math.exp(slow * t) - slow * Math.exp(fast * t)) / (fast - slow);
+        }
+        return displacement;
+    }
+
+    /**
+     * <p>Finds when a spring that does not overshoot has fallen to {@code displacement}. The
+     * displacement only ever falls, so the time is found by bisection.</p>
+     */
+    private double getTimeToFallTo(double displacement) {
+        double low = 0;
+        double high = 1 / mNaturalFrequency;
+        while (getDisplacement(high) > displacement) {
+            low = high;
+            high *= 2;
+        }
+        for (int i = 0; i < BISECTION_STEPS; i++) {
+            double mid = (low + high) / 2;
+            if (getDisplacement(mid) > displacement) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return high;
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.centresnaprecyclerview;
+
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.v7.widget.RecyclerView;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>{@link SnapRecyclerAdapter} over a list of items with stable ids, which tracks the current
+ * item by its id as the list is updated.</p>
+ *
+ * <p>New lists are given to {@link #submitItems(List)}, which compares them with the current list
+ * on a background thread, and then dispatches the removals, insertions and changes found as
+ * granular notifications on the UI thread. Items that keep their id and their order are neither
+ * rebound nor moved, unless their contents have changed. The current position follows the
+ * current item by its id, even if it has moved, and if the list is idle, the current item stays
+ * exactly where it was on screen. If the current item has been removed, the nearest remaining item
+ * becomes current.</p>
+ *
+ * <p>Lists given to this adapter must not be modified afterwards.</p>
+ *
+ * @param <T> The type of the items.
+ */
+public abstract class StableIdSnapAdapter<T> extends SnapRecyclerAdapter {
+    private final Executor mExecutor;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private List<T> mItems = Collections.emptyList();
+    private int mGeneration;
+
+    public StableIdSnapAdapter() {
+        this(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    /**
+     * @param executor Runs the comparisons of old and new lists.
+     */
+    public StableIdSnapAdapter(Executor executor) {
+        mExecutor = executor;
+        setHasStableIds(true);
+    }
+
+    /**
+     * @param item An item of this adapter.
+     * @return The stable id of the item, unique within a list.
+     */
+    protected abstract long getStableId(T item);
+
+    /**
+     * <p>Checks whether an item with the same id in an old and a new list needs to be bound again.
+     * Called on a background thread. The base implementation uses {@link Object#equals(Object)}.
+     * </p>
+     *
+     * @param oldItem The item from the old list.
+     * @param newItem The item from the new list.
+     * @return {@code true} if the items would be bound the same.
+     */
+    protected boolean areContentsTheSame(T oldItem, T newItem) {
+        return oldItem.equals(newItem);
+    }
+
+    /**
+     * @param position The adapter position of an item.
+     * @return The item.
+     */
+    public T getItem(int position) {
+        return mItems.get(position);
+    }
+
+    @Override
+    public int getItemCount() {
+        return mItems.size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getStableId(mItems.get(position));
+    }
+
+    /**
+     * @return The stable id of the current item, or {@link RecyclerView#NO_ID} if there are no
+     *         items.
+     */
+    public long getCurrentItemId() {
+        return mCurrentPosition >= 0 && mCurrentPosition < mItems.size()
+                ? getStableId(mItems.get(mCurrentPosition)) : RecyclerView.NO_ID;
+    }
+
+    /**
+     * <p>Replaces the items straight away, rebinding every item. The current item is kept if it
+     * is still present. Use {@link #submitItems(List)} to update an existing list.</p>
+     *
+     * @param items The new items.
+     */
+    public void setItems(List<T> items) {
+        mGeneration++;
+        long currentId = getCurrentItemId();
+        mItems = items;
+        int currentPosition = 0;
+        for (int i = 0; i < items.size(); i++) {
+            if (getStableId(items.get(i)) == currentId) {
+                currentPosition = i;
+                break;
+            }
+        }
+        moveCurrentPosition(currentPosition);
+        notifyDataSetChanged();
+    }
+
+    /**
+     * <p>Updates the items to {@code items}, comparing them with the current items in the
+     * background. The update is applied on the UI thread, unless another list is submitted
+     * first.</p>
+     *
+     * @param items The new items.
+     */
+    public void submitItems(final List<T> items) {
+        final int generation = ++mGeneration;
+        final List<T> oldItems = mItems;
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Diff diff = new Diff(oldItems, items);
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation == mGeneration) {
+                            applyDiff(items, diff);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void applyDiff(List<T> items, Diff diff) {
+        int oldPosition = mCurrentPosition;
+        boolean hadCurrent = oldPosition >= 0 && oldPosition < mItems.size();
+        int newPosition = hadCurrent ? diff.getNewPosition(oldPosition) : 0;
+        CentreSnapRecyclerView recyclerView = getRecyclerView();
+        int offset = recyclerView != null && hadCurrent
+                ? recyclerView.getOffsetFromCentre(oldPosition) : 0;
+
+        mItems = items;
+        moveCurrentPosition(newPosition);
+        diff.dispatch(this);
+
+        if (recyclerView != null && recyclerView.getScrollState() == RecyclerView.SCROLL_STATE_IDLE
+                && !items.isEmpty()) {
+            // Lay out around the current item, in the layout pass the notifications cause.
+            recyclerView.mLayoutManager.setPendingCentrePosition(newPosition, offset);
+        }
+        if (hadCurrent && !items.isEmpty() && diff.isRemoved(oldPosition)) {
+            onItemSelected(newPosition);
+        }
+    }
+
+    /**
+     * <p>The difference between two lists, found by matching stable ids. Items that keep their
+     * order are those in the longest run of matched items whose new positions increase; all other
+     * old items are removed and all other new items inserted.</p>
+     */
+    private final class Diff {
+        private final boolean[] mOldKept;
+        private final boolean[] mNewKept;
+        private final boolean[] mNewChanged;
+        private final int[] mOldToNew;
+
+        Diff(List<T> oldItems, List<T> newItems) {
+            int oldSize = oldItems.size();
+            int newSize = newItems.size();
+            mOldKept = new boolean[oldSize];
+            mNewKept = new boolean[newSize];
+            mNewChanged = new boolean[newSize];
+            mOldToNew = new int[oldSize];
+
+            Map<Long, Integer> newPositions = new HashMap<>(newSize * 2);
+            for (int i = 0; i < newSize; i++) {
+                newPositions.put(getStableId(newItems.get(i)), i);
+            }
+            for (int i = 0; i < oldSize; i++) {
+                Integer newPosition = newPositions.get(getStableId(oldItems.get(i)));
+                mOldToNew[i] = newPosition != null ? newPosition : RecyclerView.NO_POSITION;
+            }
+
+            markLongestIncreasingRun();
+            for (int i = 0; i < oldSize; i++) {
+                if (mOldKept[i]) {
+                    int newPosition = mOldToNew[i];
+                    mNewKept[newPosition] = true;
+                    mNewChanged[newPosition] =
+                            !areContentsTheSame(oldItems.get(i), newItems.get(newPosition));
+                }
+            }
+        }
+
+        /**
+         * <p>Marks as kept the old items forming the longest run whose new positions increase,
+         * in {@code O(n log n)}.</p>
+         */
+        private void markLongestIncreasingRun() {
+            int oldSize = mOldToNew.length;
+            int[] tails = new int[oldSize];
+            int[] previous = new int[oldSize];
+            int length = 0;
+            for (int i = 0; i < oldSize; i++) {
+                int newPosition = mOldToNew[i];
+                if (newPosition == RecyclerView.NO_POSITION) {
+                    continue;
+                }
+
+                int low = 0;
+                int high = length;
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (mOldToNew[tails[mid]] < newPosition) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                previous[i] = low > 0 ? tails[low - 1] : -1;
+                tails[low] = i;
+                if (low == length) {
+                    length++;
+                }
+            }
+
+            for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = previous[i]) {
+                mOldKept[i] = true;
+            }
+        }
+
+        boolean isRemoved(int oldPosition) {
+            return mOldToNew[oldPosition] == RecyclerView.NO_POSITION;
+        }
+
+        /**
+         * @return The new position of the old item, whether or not it has kept its place, or if it
+         *         has been removed, of the nearest old item that has not.
+         */
+        int getNewPosition(int oldPosition) {
+            for (int distance = 0; distance < mOldToNew.length; distance++) {
+                int after = oldPosition + distance;
+                if (after < mOldToNew.length && !isRemoved(after)) {
+                    return mOldToNew[after];
+                }
+                int before = oldPosition - distance;
+                if (before >= 0 && !isRemoved(before)) {
+                    return mOldToNew[before];
+                }
+            }
+            return Math.max(0, Math.min(oldPosition, mNewKept.length - 1));
+        }
+
+        /**
+         * <p>Notifies the removals from the end backwards, so that earlier positions still refer
+         * to the old list, then the insertions from the start forwards, so that earlier positions
+         * already refer to the new list, and finally the changes.</p>
+         */
+        void dispatch(RecyclerView.Adapter adapter) {
+            int end = mOldKept.length;
+            while (end > 0) {
+                if (mOldKept[end - 1]) {
+                    end--;
+                    continue;
+                }
+                int start = end - 1;
+                while (start > 0 && !mOldKept[start - 1]) {
+                    start--;
+                }
+                adapter.notifyItemRangeRemoved(start, end - start);
+                end = start;
+            }
+
+            dispatchRuns(adapter, mNewKept, false);
+            dispatchRuns(adapter, mNewChanged, true);
+        }
+
+        /**
+         * <p>Notifies each run of positions where {@code flags} equals {@code value}, as
+         * insertions if {@code value} is {@code false}, or as changes if it is {@code true}.</p>
+         */
+        private void dispatchRuns(RecyclerView.Adapter adapter, boolean[] flags, boolean value) {
+            int start = 0;
+            while (start < flags.length) {
+                if (flags[start] != value) {
+                    start++;
+                    continue;
+                }
+                int end = start + 1;
+                while (end < flags.length && flags[end] == value) {
+                    end++;
+                }
+                if (value) {
+                    adapter.notifyItemRangeChanged(start, end - start);
+                } else {
+                    adapter.notifyItemRangeInserted(start, end - start);
+                }
+                start = end;
+            }
+        }
+    }
+}
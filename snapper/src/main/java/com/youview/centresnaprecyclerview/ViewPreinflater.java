@@ -0,0 +1,179 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.centresnaprecyclerview;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.support.v7.widget.RecyclerView;
+import android.util.SparseIntArray;
+
+import java.util.concurrent.Executor;
+
+/**
+ * <p>Creates the {@link RecyclerView.ViewHolder}s that the first layout pass of a
+ * {@link CentreSnapRecyclerView} will need, ahead of that pass, and puts them in its view
+ * pool.</p>
+ *
+ * <p>The number of each view type is counted from the positions either side of the position to
+ * be centred, across the expected width and the layout margin. Holders are created one at a time
+ * while the main thread is idle, or on an {@link Executor} for view types the adapter allows,
+ * so no single frame pays for more than one. Once the view has been laid out, anything not yet
+ * created is abandoned, as layout will have created it.</p>
+ */
+final class ViewPreinflater implements MessageQueue.IdleHandler {
+    // Children partly shown at either end, beyond those that fit entirely.
+    private static final int PARTLY_VISIBLE_CHILDREN = 2;
+
+    // The view pool keeps this many of each view type unless told otherwise.
+    private static final int DEFAULT_MAX_RECYCLED_VIEWS = 5;
+
+    private final CentreSnapRecyclerView mRecyclerView;
+    // Not View.post(), which before API 24 drops runnables posted from other threads while the
+    // view is detached, as it is when the adapter is usually set.
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    // View type to the number of holders still to create on the main thread.
+    private final SparseIntArray mRemaining = new SparseIntArray();
+    private Executor mExecutor;
+    private boolean mScheduled;
+
+    ViewPreinflater(CentreSnapRecyclerView recyclerView) {
+        mRecyclerView = recyclerView;
+    }
+
+    /**
+     * @param executor The executor to create holders on, for view types that
+     *                 {@link SnapRecyclerAdapter#canCreateViewHolderInBackground(int)}, or
+     *                 {@code null} to create every holder on the main thread.
+     */
+    void setExecutor(Executor executor) {
+        mExecutor = executor;
+    }
+
+    /**
+     * <p>Starts creating the holders needed to lay out {@code width} pixels around
+     * {@code centrePosition}, replacing any not yet created for an earlier call.</p>
+     */
+    void start(int width, int childWidth, int layoutMargin, int centrePosition) {
+        cancel();
+        SnapRecyclerAdapter adapter = (SnapRecyclerAdapter) mRecyclerView.getAdapter();
+        int itemCount = adapter != null ? adapter.getItemCount() : 0;
+        if (itemCount == 0 || width <= 0 || childWidth <= 0) {
+            return;
+        }
+
+        int count = (width + 2 * layoutMargin) / childWidth + PARTLY_VISIBLE_CHILDREN;
+        int first = Math.max(0, Math.min(centrePosition - count / 2, itemCount - count));
+        int last = Math.min(itemCount - 1, first + count - 1);
+        for (int position = first; position <= last; position++) {
+            int viewType = adapter.getItemViewType(position);
+            mRemaining.put(viewType, mRemaining.get(viewType) + 1);
+        }
+
+        RecyclerView.RecycledViewPool pool = mRecyclerView.getRecycledViewPool();
+        for (int i = mRemaining.size() - 1; i >= 0; i--) {
+            int viewType = mRemaining.keyAt(i);
+            int needed = mRemaining.valueAt(i);
+            if (needed > DEFAULT_MAX_RECYCLED_VIEWS) {
+                pool.setMaxRecycledViews(viewType, needed);
+            }
+            if (mExecutor != null && adapter.canCreateViewHolderInBackground(viewType)) {
+                mRemaining.delete(viewType);
+                for (int j = 0; j < needed; j++) {
+                    mExecutor.execute(new BackgroundCreation(adapter, viewType));
+                }
+            }
+        }
+
+        if (mRemaining.size() > 0) {
+            mScheduled = true;
+            Looper.myQueue().addIdleHandler(this);
+        }
+    }
+
+    void cancel() {
+        mRemaining.clear();
+        if (mScheduled) {
+            mScheduled = false;
+            Looper.myQueue().removeIdleHandler(this);
+        }
+    }
+
+    /**
+     * <p>Creates one holder, while the main thread has nothing else to do.</p>
+     *
+     * @return {@code true} while there are more holders to create.
+     */
+    @Override
+    public boolean queueIdle() {
+        RecyclerView.Adapter adapter = mRecyclerView.getAdapter();
+        if (adapter == null || isLaidOut() || mRemaining.size() == 0) {
+            mRemaining.clear();
+            mScheduled = false;
+            return false;
+        }
+
+        int last = mRemaining.size() - 1;
+        int viewType = mRemaining.keyAt(last);
+        int remaining = mRemaining.valueAt(last) - 1;
+        if (remaining > 0) {
+            mRemaining.put(viewType, remaining);
+        } else {
+            mRemaining.delete(viewType);
+        }
+        mRecyclerView.getRecycledViewPool().putRecycledView(
+                adapter.createViewHolder(mRecyclerView, viewType));
+
+        mScheduled = mRemaining.size() > 0;
+        return mScheduled;
+    }
+
+    private boolean isLaidOut() {
+        return mRecyclerView.getChildCount() > 0;
+    }
+
+    /**
+     * <p>Creates a holder on the executor, and puts it in the pool back on the main thread.</p>
+     */
+    private class BackgroundCreation implements Runnable {
+        private final RecyclerView.Adapter mAdapter;
+        private final int mViewType;
+        private RecyclerView.ViewHolder mHolder;
+
+        BackgroundCreation(RecyclerView.Adapter adapter, int viewType) {
+            mAdapter = adapter;
+            mViewType = viewType;
+        }
+
+        @Override
+        public void run() {
+            if (mHolder == null) {
+                mHolder = mAdapter.createViewHolder(mRecyclerView, mViewType);
+                mMainHandler.post(this);
+            } else if (mRecyclerView.getAdapter() == mAdapter && !isLaidOut()) {
+                mRecyclerView.getRecycledViewPool().putRecycledView(mHolder);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.youview.centresnaprecyclerview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>Checks that {@link FlingPredictor} predicts fling distances consistently, and that the
+ * velocities it gives travel the requested distances.</p>
+ */
+public class FlingPredictorTest {
+    private static final float DENSITY = 2.0f;
+    private static final float FRICTION = 0.015f;
+    private static final int MAX_VELOCITY = 16000;
+
+    private FlingPredictor mPredictor;
+
+    @Before
+    public void setUp() {
+        mPredictor = new FlingPredictor(DENSITY, FRICTION, MAX_VELOCITY);
+    }
+
+    @Test
+    public void flingVelocityTravelsTheRequestedDistance() {
+        for (int distance = 1; distance <= mPredictor.getMaxFlingDistance(); distance++) {
+            int travelled = mPredictor.getFlingDistance(mPredictor.getFlingVelocity(distance));
+            assertTrue("distance " + distance + " travelled " + travelled,
+                    Math.abs(travelled - distance) <= 1);
+        }
+    }
+
+    @Test
+    public void distanceGrowsWithVelocity() {
+        int previous = 0;
+        for (int velocity = 1; velocity <= MAX_VELOCITY; velocity++) {
+            int distance = mPredictor.getFlingDistance(velocity);
+            assertTrue("velocity " + velocity, distance >= previous);
+            previous = distance;
+        }
+    }
+
+    @Test
+    public void directionIsKept() {
+        assertEquals(-mPredictor.getFlingDistance(1000), mPredictor.getFlingDistance(-1000));
+        assertEquals(-mPredictor.getFlingVelocity(500), mPredictor.getFlingVelocity(-500));
+        assertEquals(0, mPredictor.getFlingDistance(0));
+        assertEquals(0, mPredictor.getFlingVelocity(0));
+    }
+
+    @Test
+    public void velocityIsClampedToTheMaximum() {
+        assertEquals(mPredictor.getMaxFlingDistance(),
+                mPredictor.getFlingDistance(MAX_VELOCITY * 2));
+        assertEquals(MAX_VELOCITY,
+                mPredictor.getFlingVelocity(mPredictor.getMaxFlingDistance() * 2));
+    }
+}
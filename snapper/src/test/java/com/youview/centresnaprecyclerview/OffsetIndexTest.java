@@ -0,0 +1,171 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.youview.centresnaprecyclerview;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <p>Checks the prefix sums held by {@link OffsetIndex}, the descent that finds the child at an
+ * offset, and updates to single widths and to every width after a position.</p>
+ */
+public class OffsetIndexTest {
+    @Test
+    public void offsetsAreTheSumOfEarlierWidths() {
+        OffsetIndex index = build(100, 300, 200, 50);
+
+        assertEquals(0, index.getOffset(0));
+        assertEquals(100, index.getOffset(1));
+        assertEquals(400, index.getOffset(2));
+        assertEquals(600, index.getOffset(3));
+        assertEquals(650, index.getOffset(4));
+        assertEquals(650, index.getOffset(10));
+        assertEquals(650, index.getTotalWidth());
+        assertEquals(300, index.getWidth(1));
+        assertEquals(0, index.getWidth(4));
+    }
+
+    @Test
+    public void positionIsTheChildSpanningTheOffset() {
+        OffsetIndex index = build(100, 300, 200, 50);
+
+        assertEquals(0, index.getPosition(-10));
+        assertEquals(0, index.getPosition(0));
+        assertEquals(0, index.getPosition(99));
+        assertEquals(1, index.getPosition(100));
+        assertEquals(1, index.getPosition(399));
+        assertEquals(2, index.getPosition(400));
+        assertEquals(3, index.getPosition(649));
+        assertEquals(3, index.getPosition(650));
+        assertEquals(3, index.getPosition(10000));
+    }
+
+    @Test
+    public void everyOffsetFindsItsChild() {
+        Random random = new Random(42);
+        for (int size = 1; size <= 70; size++) {
+            List<Integer> widths = randomWidths(random, size);
+            OffsetIndex index = build(widths);
+
+            int start = 0;
+            for (int position = 0; position < size; position++) {
+                int end = start + widths.get(position);
+                assertEquals(position, index.getPosition(start));
+                assertEquals(position, index.getPosition(end - 1));
+                start = end;
+            }
+        }
+    }
+
+    @Test
+    public void emptyIndexHasNoPosition() {
+        OffsetIndex index = build();
+
+        assertEquals(SnapGeometry.NO_POSITION, index.getPosition(0));
+        assertEquals(0, index.getTotalWidth());
+    }
+
+    @Test
+    public void setWidthUpdatesLaterOffsets() {
+        OffsetIndex index = build(100, 300, 200, 50);
+        index.setWidth(1, 120);
+
+        assertEquals(100, index.getOffset(1));
+        assertEquals(220, index.getOffset(2));
+        assertEquals(470, index.getTotalWidth());
+        assertEquals(2, index.getPosition(220));
+    }
+
+    @Test
+    public void setWidthOutOfRangeIsIgnored() {
+        OffsetIndex index = build(100, 300);
+        index.setWidth(-1, 50);
+        index.setWidth(2, 50);
+
+        assertEquals(400, index.getTotalWidth());
+    }
+
+    @Test
+    public void rebuildFromMatchesAFullBuild() {
+        Random random = new Random(42);
+        List<Integer> widths = randomWidths(random, 20);
+        OffsetIndex index = build(widths);
+        for (int run = 0; run < 2000; run++) {
+            int start = random.nextInt(widths.size() + 1);
+            if (random.nextBoolean() || widths.isEmpty()) {
+                widths.addAll(start, randomWidths(random, 1 + random.nextInt(5)));
+            } else {
+                int end = Math.min(widths.size(), start + 1 + random.nextInt(5));
+                start = Math.min(start, widths.size() - 1);
+                widths.subList(start, end).clear();
+            }
+            index.rebuildFrom(new ListWidths(widths), start, widths.size());
+
+            OffsetIndex expected = build(widths);
+            assertEquals(expected.size(), index.size());
+            for (int position = 0; position <= widths.size(); position++) {
+                assertEquals(expected.getOffset(position), index.getOffset(position));
+            }
+        }
+    }
+
+    private static OffsetIndex build(Integer... widths) {
+        List<Integer> list = new ArrayList<>();
+        for (Integer width : widths) {
+            list.add(width);
+        }
+        return build(list);
+    }
+
+    private static OffsetIndex build(List<Integer> widths) {
+        OffsetIndex index = new OffsetIndex();
+        index.build(new ListWidths(widths), widths.size());
+        return index;
+    }
+
+    private static List<Integer> randomWidths(Random random, int count) {
+        List<Integer> widths = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            widths.add(1 + random.nextInt(300));
+        }
+        return widths;
+    }
+
+    private static class ListWidths implements ChildWidthProvider {
+        private final List<Integer> mWidths;
+
+        ListWidths(List<Integer> widths) {
+            mWidths = widths;
+        }
+
+        @Override
+        public int getChildWidth(int position) {
+            return mWidths.get(position);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.youview.centresnaprecyclerview;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.youview.snapper.BuildConfig;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * <p>Checks that {@link PagedSnapAdapter} loads pages as their items are bound, prefetches in the
+ * direction of the scroll, and holds no more than its maximum number of pages.</p>
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21, packageName = "com.youview.snapper")
+public class PagedSnapAdapterTest {
+    private static final int ITEM_COUNT = 45;
+    private static final int PAGE_SIZE = 10;
+    private static final int MAX_PAGES = 2;
+
+    private final List<String> mLoads = new ArrayList<>();
+    private RecordingAdapter mAdapter;
+    private RecyclerView.ViewHolder mHolder;
+
+    @Before
+    public void setUp() {
+        mAdapter = new RecordingAdapter();
+        mHolder = mAdapter.onCreateViewHolder(null, 0);
+    }
+
+    @Test
+    public void missingItemIsBoundAgainOnceItsPageLoads() {
+        bind(12);
+
+        assertEquals(Arrays.asList("missing 12"), mAdapter.mBinds);
+        assertEquals("10 10", mLoads.get(0));
+        assertEquals("item 12", mAdapter.getItem(12));
+    }
+
+    @Test
+    public void pageAheadIsPrefetchedInTheDirectionOfTheScroll() {
+        bind(0);
+        bind(6);
+
+        assertEquals(Arrays.asList("0 10", "10 10"), mLoads);
+    }
+
+    @Test
+    public void lastPageHoldsTheRemainingItems() {
+        bind(44);
+
+        assertEquals("40 5", mLoads.get(0));
+        assertEquals("item 44", mAdapter.getItem(44));
+    }
+
+    @Test
+    public void pagesFurthestFromTheBoundItemsAreDropped() {
+        bind(0);
+        bind(10);
+        bind(20);
+        mLoads.clear();
+
+        assertEquals("item 15", mAdapter.getItem(15));
+        assertEquals("item 25", mAdapter.getItem(25));
+        assertEquals(new ArrayList<String>(), mLoads);
+        assertNull(mAdapter.getItem(5));
+        assertEquals(Arrays.asList("0 10"), mLoads);
+    }
+
+    @Test
+    public void refreshLoadsEveryPageAgain() {
+        bind(0);
+        mAdapter.refresh();
+        mLoads.clear();
+
+        assertNull(mAdapter.getItem(0));
+        assertEquals(Arrays.asList("0 10"), mLoads);
+    }
+
+    private void bind(int position) {
+        mAdapter.onBindViewHolder(mHolder, position);
+        ShadowLooper.runUiThreadTasks();
+    }
+
+    private class RecordingAdapter extends PagedSnapAdapter<String> {
+        final List<String> mBinds = new ArrayList<>();
+
+        RecordingAdapter() {
+            super(new PageLoader<String>() {
+                @Override
+                public List<String> loadPage(int start, int count) {
+                    mLoads.add(start + " " + count);
+                    List<String> items = new ArrayList<>();
+                    for (int i = start; i < start + count; i++) {
+                        items.add("item " + i);
+                    }
+                    return items;
+                }
+            }, ITEM_COUNT, PAGE_SIZE, MAX_PAGES, new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    command.run();
+                }
+            });
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            return new RecyclerView.ViewHolder(new View(RuntimeEnvironment.application)) {
+            };
+        }
+
+        @Override
+        protected void onBindItem(RecyclerView.ViewHolder holder, int position, String item) {
+            mBinds.add(item);
+        }
+
+        @Override
+        protected void onBindMissingItem(RecyclerView.ViewHolder holder, int position) {
+            mBinds.add("missing " + position);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.youview.centresnaprecyclerview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <p>Checks that {@link RailStateCache} holds the state of each rail by id, and replaces the least
+ * recently used entry once full.</p>
+ */
+public class RailStateCacheTest {
+    @Test
+    public void stateIsHeldByRailId() {
+        RailStateCache cache = new RailStateCache(4);
+        cache.put(10L, 3, -20);
+        cache.put(11L, 7, 5);
+
+        assertState(cache, 10L, 3, -20);
+        assertState(cache, 11L, 7, 5);
+        assertEquals(-1, cache.get(12L));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void putReplacesTheStateOfTheSameRail() {
+        RailStateCache cache = new RailStateCache(4);
+        cache.put(10L, 3, -20);
+        cache.put(10L, 4, 0);
+
+        assertState(cache, 10L, 4, 0);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void leastRecentlyUsedIsReplacedWhenFull() {
+        RailStateCache cache = new RailStateCache(2);
+        cache.put(10L, 1, 0);
+        cache.put(11L, 2, 0);
+        cache.get(10L);
+        cache.put(12L, 3, 0);
+
+        assertEquals(2, cache.size());
+        assertEquals(-1, cache.get(11L));
+        assertState(cache, 10L, 1, 0);
+        assertState(cache, 12L, 3, 0);
+    }
+
+    @Test
+    public void removeKeepsTheOtherRails() {
+        RailStateCache cache = new RailStateCache(4);
+        cache.put(10L, 1, 0);
+        cache.put(11L, 2, 0);
+        cache.put(12L, 3, 0);
+        cache.remove(10L);
+        cache.remove(13L);
+
+        assertEquals(2, cache.size());
+        assertEquals(-1, cache.get(10L));
+        assertState(cache, 11L, 2, 0);
+        assertState(cache, 12L, 3, 0);
+    }
+
+    @Test
+    public void clearDropsEveryRail() {
+        RailStateCache cache = new RailStateCache(4);
+        cache.put(10L, 1, 0);
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertEquals(-1, cache.get(10L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxSizeMustBePositive() {
+        new RailStateCache(0);
+    }
+
+    private static void assertState(RailStateCache cache, long railId, int position, int offset) {
+        int index = cache.get(railId);
+        assertEquals(position, cache.getPosition(index));
+        assertEquals(offset, cache.getOffset(index));
+    }
+}
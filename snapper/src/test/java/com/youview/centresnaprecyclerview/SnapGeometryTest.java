@@ -0,0 +1,123 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.youview.centresnaprecyclerview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <p>Checks the centring and snapping calculations of {@link SnapGeometry}, for fixed-width
+ * children, children of varying widths and circular lists.</p>
+ */
+public class SnapGeometryTest {
+    private static final int WIDTH = 1000;
+    private static final int CHILD_WIDTH = 200;
+    private static final int ITEM_COUNT = 10;
+
+    private SnapGeometry mGeometry;
+
+    @Before
+    public void setUp() {
+        mGeometry = new SnapGeometry();
+        mGeometry.setMeasurements(WIDTH, CHILD_WIDTH);
+    }
+
+    @Test
+    public void fixedWidthChildrenAreCentredByTheirPosition() {
+        assertEquals(400, mGeometry.getEdgePadding());
+        assertEquals(1000, mGeometry.getItemStart(3));
+        assertEquals(600, mGeometry.getCentredOffset(3));
+        assertEquals(3, mGeometry.getCentrePosition(600, ITEM_COUNT));
+        assertEquals(0, mGeometry.getSnapDelta(600, 3, ITEM_COUNT));
+        assertEquals(-50, mGeometry.getSnapDelta(650, 3, ITEM_COUNT));
+    }
+
+    @Test
+    public void centreBeyondTheContentIsClamped() {
+        assertEquals(0, mGeometry.getCentrePosition(-5000, ITEM_COUNT));
+        assertEquals(ITEM_COUNT - 1, mGeometry.getCentrePosition(100000, ITEM_COUNT));
+    }
+
+    @Test
+    public void scrollOffsetIsDerivedFromAnyChild() {
+        assertEquals(600, mGeometry.getScrollOffset(3, 400));
+        assertEquals(600, mGeometry.getScrollOffset(4, 600));
+    }
+
+    @Test
+    public void invalidMeasurementsGiveNoAnswer() {
+        mGeometry.invalidate();
+
+        assertEquals(SnapGeometry.NO_POSITION, mGeometry.getCentrePosition(600, ITEM_COUNT));
+        assertEquals(0, mGeometry.getSnapDelta(650, 3, ITEM_COUNT));
+    }
+
+    @Test
+    public void noItemsHaveNoCentre() {
+        assertEquals(SnapGeometry.NO_POSITION, mGeometry.getCentrePosition(0, 0));
+    }
+
+    @Test
+    public void varyingWidthsAreCentredThroughTheOffsetIndex() {
+        final int[] widths = {100, 300, 200};
+        OffsetIndex index = new OffsetIndex();
+        index.build(new ChildWidthProvider() {
+            @Override
+            public int getChildWidth(int position) {
+                return widths[position];
+            }
+        }, widths.length);
+        mGeometry.setOffsetIndex(index);
+
+        assertEquals(450, mGeometry.getStartPadding());
+        assertEquals(400, mGeometry.getEndPadding(widths.length));
+        assertEquals(850, mGeometry.getItemStart(2));
+        assertEquals(200, mGeometry.getCentredOffset(1));
+        assertEquals(1, mGeometry.getCentrePosition(200, widths.length));
+        assertEquals(2, mGeometry.getCentrePosition(350, widths.length));
+        assertEquals(250, mGeometry.getSnapDelta(200, 2, widths.length));
+    }
+
+    @Test
+    public void circularListsWrapRoundTheLoop() {
+        mGeometry.setCircular(true);
+
+        assertEquals(2000, mGeometry.getLoopLength(ITEM_COUNT));
+        assertEquals(1800, mGeometry.normaliseScrollOffset(-200, ITEM_COUNT));
+        assertEquals(600, mGeometry.normaliseScrollOffset(4600, ITEM_COUNT));
+        assertEquals(ITEM_COUNT - 1, mGeometry.getCentrePosition(-200, ITEM_COUNT));
+        assertEquals(ITEM_COUNT - 1, mGeometry.wrapPosition(-1, ITEM_COUNT));
+        assertEquals(0, mGeometry.wrapPosition(ITEM_COUNT, ITEM_COUNT));
+    }
+
+    @Test
+    public void circularSnapsTakeTheShortestWayRound() {
+        mGeometry.setCircular(true);
+
+        assertEquals(-200, mGeometry.getSnapDelta(0, ITEM_COUNT - 1, ITEM_COUNT));
+        assertEquals(200, mGeometry.getSnapDelta(1800, 0, ITEM_COUNT));
+        assertEquals(200, mGeometry.getSnapDelta(0, 1, ITEM_COUNT));
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.youview.centresnaprecyclerview;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.youview.snapper.BuildConfig;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <p>Checks how {@link SnapRecyclerAdapter} completes placeholder binds, and what it does with
+ * payloads coalesced with {@link SnapRecyclerAdapter#PAYLOAD_DEFERRED_BIND}, and that it only
+ * takes a {@link SelectionPipeline} when it has stable ids.</p>
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21, packageName = "com.youview.snapper")
+public class SnapRecyclerAdapterTest {
+    private static final Object PAYLOAD_OTHER = new Object();
+
+    private PlaceholderAdapter mAdapter;
+    private RecyclerView.ViewHolder mHolder;
+
+    @Before
+    public void setUp() {
+        mAdapter = new PlaceholderAdapter();
+        mHolder = mAdapter.onCreateViewHolder(null, 0);
+    }
+
+    @Test
+    public void placeholderIsCompletedByDeferredBind() {
+        bindPlaceholder();
+        mAdapter.onBindViewHolder(mHolder, 3,
+                Collections.singletonList(SnapRecyclerAdapter.PAYLOAD_DEFERRED_BIND));
+
+        assertEquals(Arrays.asList("placeholder 3", "deferred 3"), mAdapter.mEvents);
+    }
+
+    @Test
+    public void otherPayloadsArePassedOnAfterDeferredBind() {
+        bindPlaceholder();
+        mAdapter.onBindViewHolder(mHolder, 3,
+                Arrays.asList(SnapRecyclerAdapter.PAYLOAD_DEFERRED_BIND, PAYLOAD_OTHER));
+
+        assertEquals(Arrays.asList("placeholder 3", "deferred 3", "full 3"), mAdapter.mEvents);
+    }
+
+    @Test
+    public void holderWithoutPlaceholderIsBoundInFull() {
+        mAdapter.onBindViewHolder(mHolder, 3,
+                Arrays.asList(SnapRecyclerAdapter.PAYLOAD_DEFERRED_BIND, PAYLOAD_OTHER));
+
+        assertEquals(Collections.singletonList("full 3"), mAdapter.mEvents);
+    }
+
+    @Test
+    public void recycledPlaceholderIsForgotten() {
+        bindPlaceholder();
+        mAdapter.onHolderRecycled(mHolder);
+        mAdapter.onBindViewHolder(mHolder, 3,
+                Collections.singletonList(SnapRecyclerAdapter.PAYLOAD_DEFERRED_BIND));
+
+        assertEquals(Arrays.asList("placeholder 3", "full 3"), mAdapter.mEvents);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void selectionPipelineNeedsStableIds() {
+        mAdapter.setSelectionPipeline(createPipeline());
+    }
+
+    @Test
+    public void selectionPipelineIsAcceptedWithStableIds() {
+        mAdapter.setHasStableIds(true);
+        mAdapter.setSelectionPipeline(createPipeline());
+    }
+
+    private static SelectionPipeline<String> createPipeline() {
+        return new SelectionPipeline<>(new SelectionPipeline.Loader<String>() {
+            @Override
+            public String load(long itemId) {
+                return "item " + itemId;
+            }
+        }, new SelectionPipeline.Listener<String>() {
+            @Override
+            public void onDetailsLoaded(int position, String details) {
+            }
+        });
+    }
+
+    private void bindPlaceholder() {
+        mAdapter.setFastScrolling(true);
+        mAdapter.onBindViewHolder(mHolder, 3, Collections.emptyList());
+        mAdapter.setFastScrolling(false);
+    }
+
+    private static class PlaceholderAdapter extends SnapRecyclerAdapter {
+        final List<String> mEvents = new ArrayList<>();
+
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            return new RecyclerView.ViewHolder(new View(RuntimeEnvironment.application)) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+            mEvents.add("full " + position);
+        }
+
+        @Override
+        protected boolean onBindPlaceholder(RecyclerView.ViewHolder holder, int position) {
+            mEvents.add("placeholder " + position);
+            return true;
+        }
+
+        @Override
+        protected void onBindDeferred(RecyclerView.ViewHolder holder, int position) {
+            mEvents.add("deferred " + position);
+        }
+
+        @Override
+        public int getItemCount() {
+            return 10;
+        }
+    }
+}
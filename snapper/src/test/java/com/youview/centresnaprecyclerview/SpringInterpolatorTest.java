@@ -0,0 +1,76 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.youview.centresnaprecyclerview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>Checks that a {@link SpringInterpolator} has settled by the end of its settle duration, so
+ * that landing exactly on the target at the end is not a visible jump.</p>
+ */
+public class SpringInterpolatorTest {
+    // The settled fraction, with room for float rounding. A snap across a 1920 pixel screen moves
+    // about two pixels in this fraction.
+    private static final float MAX_FINAL_JUMP = 0.0011f;
+    // The last input before the end of the animation.
+    private static final float LAST_INPUT = 0.99999f;
+
+    private static final float[] STIFFNESSES = {SpringInterpolator.STIFFNESS_HIGH,
+            SpringInterpolator.STIFFNESS_MEDIUM, SpringInterpolator.STIFFNESS_LOW};
+    private static final float[] DAMPING_RATIOS = {0.2f, SpringInterpolator.DAMPING_RATIO_LOW_BOUNCY,
+            SpringInterpolator.DAMPING_RATIO_NO_BOUNCY, 1.5f, 4f};
+
+    @Test
+    public void springHasSettledBeforeTheEnd() {
+        for (float stiffness : STIFFNESSES) {
+            for (float dampingRatio : DAMPING_RATIOS) {
+                SpringInterpolator interpolator = new SpringInterpolator(stiffness, dampingRatio);
+                float jump = Math.abs(1 - interpolator.getInterpolation(LAST_INPUT));
+                assertTrue("Stiffness " + stiffness + ", damping ratio " + dampingRatio + " jumps "
+                        + jump + " at the end", jump <= MAX_FINAL_JUMP);
+            }
+        }
+    }
+
+    @Test
+    public void criticallyDampedSpringSettlesWhenItFallsToTheSettledFraction() {
+        SpringInterpolator interpolator = new SpringInterpolator(
+                SpringInterpolator.STIFFNESS_MEDIUM, SpringInterpolator.DAMPING_RATIO_NO_BOUNCY);
+
+        assertEquals(0.999f, interpolator.getInterpolation(LAST_INPUT), 0.00001f);
+        assertEquals(239, interpolator.getSettleDuration(), 1);
+    }
+
+    @Test
+    public void springStartsAtRestAndEndsOnTheTarget() {
+        for (float dampingRatio : DAMPING_RATIOS) {
+            SpringInterpolator interpolator = new SpringInterpolator(
+                    SpringInterpolator.STIFFNESS_MEDIUM, dampingRatio);
+            assertEquals(0f, interpolator.getInterpolation(0), 0f);
+            assertEquals(1f, interpolator.getInterpolation(1), 0f);
+        }
+    }
+}
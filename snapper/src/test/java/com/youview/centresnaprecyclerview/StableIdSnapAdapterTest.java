@@ -0,0 +1,254 @@
+/*
+ * The MIT License (MIT)
+ * Copyright (c) 2015 YouView TV Limited.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.youview.centresnaprecyclerview;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.ViewGroup;
+
+import com.youview.snapper.BuildConfig;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <p>Checks the comparison of old and new lists in {@link StableIdSnapAdapter}: which items keep their place,
+ * the order in which the differences are notified, and how the current item follows them.</p>
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21, packageName = "com.youview.snapper")
+public class StableIdSnapAdapterTest {
+    private IdAdapter mAdapter;
+    private RecordingObserver mObserver;
+
+    @Before
+    public void setUp() {
+        mAdapter = new IdAdapter();
+        mObserver = new RecordingObserver();
+        mAdapter.registerAdapterDataObserver(mObserver);
+    }
+
+    @Test
+    public void movedItemsAreRemovedAndInsertedAroundTheLongestRun() {
+        setItems(1, 2, 3, 4, 5);
+        submitItems(0, 1, 3, 4, 2, 6);
+
+        // 1, 3 and 4 keep their order. 2 moves, 5 is removed, and 0 and 6 are new.
+        assertEquals(Arrays.asList("removed 4 1", "removed 1 1", "inserted 0 1",
+                "inserted 4 2"), mObserver.mEvents);
+    }
+
+    @Test
+    public void unchangedListNotifiesNothing() {
+        setItems(1, 2, 3);
+        submitItems(1, 2, 3);
+
+        assertEquals(Collections.<String>emptyList(), mObserver.mEvents);
+    }
+
+    @Test
+    public void notificationsTurnTheOldListIntoTheNewOne() {
+        Random random = new Random(42);
+        for (int run = 0; run < 200; run++) {
+            long[] oldIds = randomIds(random);
+            long[] newIds = randomIds(random);
+            setItems(oldIds);
+            submitItems(newIds);
+
+            List<Long> replayed = toList(oldIds);
+            int kept = replayed.size();
+            for (String event : mObserver.mEvents) {
+                String[] parts = event.split(" ");
+                int start = Integer.parseInt(parts[1]);
+                int count = Integer.parseInt(parts[2]);
+                if (parts[0].equals("removed")) {
+                    replayed.subList(start, start + count).clear();
+                    kept -= count;
+                } else {
+                    replayed.addAll(start, toList(newIds).subList(start, start + count));
+                }
+            }
+            assertEquals(toList(newIds), replayed);
+            assertEquals(longestIncreasingRun(oldIds, newIds), kept);
+        }
+    }
+
+    @Test
+    public void currentItemIsFollowedWhenItMoves() {
+        setItems(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        mAdapter.setCurrentPosition(5);
+        submitItems(0, 1, 2, 3, 4, 6, 7, 5, 8, 9);
+
+        assertEquals(5, mAdapter.getCurrentItemId());
+        assertEquals(7, mAdapter.getCurrentPosition());
+        assertEquals(0, mAdapter.mSelectionCount);
+    }
+
+    @Test
+    public void nearestRemainingItemIsSelectedWhenCurrentIsRemoved() {
+        setItems(0, 1, 2, 3, 4, 5, 6);
+        mAdapter.setCurrentPosition(3);
+        submitItems(0, 1, 2, 4, 5, 6);
+
+        assertEquals(4, mAdapter.getCurrentItemId());
+        assertEquals(3, mAdapter.getCurrentPosition());
+        assertEquals(1, mAdapter.mSelectionCount);
+    }
+
+    private void setItems(long... ids) {
+        mAdapter.setItems(toList(ids));
+        mAdapter.mSelectionCount = 0;
+        mObserver.mEvents.clear();
+    }
+
+    private void submitItems(long... ids) {
+        mAdapter.submitItems(toList(ids));
+        ShadowLooper.runUiThreadTasks();
+    }
+
+    private static long[] randomIds(Random random) {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 0; id < 12; id++) {
+            if (random.nextBoolean()) {
+                ids.add(id);
+            }
+        }
+        Collections.shuffle(ids, random);
+        long[] result = new long[ids.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ids.get(i);
+        }
+        return result;
+    }
+
+    private static List<Long> toList(long[] ids) {
+        List<Long> list = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            list.add(id);
+        }
+        return list;
+    }
+
+    /**
+     * @return The length of the longest run of old items whose new positions increase, found
+     *         the slow way.
+     */
+    private static int longestIncreasingRun(long[] oldIds, long[] newIds) {
+        List<Long> newList = toList(newIds);
+        int[] newPositions = new int[oldIds.length];
+        int[] lengths = new int[oldIds.length];
+        int longest = 0;
+        for (int i = 0; i < oldIds.length; i++) {
+            newPositions[i] = newList.indexOf(oldIds[i]);
+            if (newPositions[i] < 0) {
+                continue;
+            }
+            lengths[i] = 1;
+            for (int j = 0; j < i; j++) {
+                if (newPositions[j] >= 0 && newPositions[j] < newPositions[i]) {
+                    lengths[i] = Math.max(lengths[i], lengths[j] + 1);
+                }
+            }
+            longest = Math.max(longest, lengths[i]);
+        }
+        return longest;
+    }
+
+    /**
+     * <p>{@link StableIdSnapAdapter} of {@code Long} ids that counts its selections, comparing
+     * lists on the calling thread so that updates are applied as soon as the main looper
+     * runs.</p>
+     */
+    private static class IdAdapter extends StableIdSnapAdapter<Long> {
+        int mSelectionCount;
+
+        IdAdapter() {
+            super(new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    command.run();
+                }
+            });
+        }
+
+        void setCurrentPosition(int currentPosition) {
+            mCurrentPosition = currentPosition;
+        }
+
+        @Override
+        protected long getStableId(Long item) {
+            return item;
+        }
+
+        @Override
+        public void onItemSelected(int position) {
+            super.onItemSelected(position);
+            mSelectionCount++;
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * <p>Records each notification as {@code "<kind> <start> <count>"}.</p>
+     */
+    private static class RecordingObserver extends RecyclerView.AdapterDataObserver {
+        final List<String> mEvents = new ArrayList<>();
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            mEvents.add("removed " + positionStart + " " + itemCount);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            mEvents.add("inserted " + positionStart + " " + itemCount);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            mEvents.add("changed " + positionStart + " " + itemCount);
+        }
+    }
+}